@@ -36,6 +36,8 @@ public interface SocketAdapter {
 	public Volt get12Volt();
 	
 	public Volt get3Volt();
+
+	public Volt get(int targetVolts);
 }
 // Two Way Adapter Pattern
 // While implementing Adapter pattern, there are two approaches - class adapter and object adapter - however both these approaches produce same result.
@@ -50,6 +52,8 @@ public interface SocketAdapter {
 //Using inheritance for adapter pattern
 public class SocketClassAdapterImpl extends Socket implements SocketAdapter{
 
+	private final VoltConversionTable table = VoltConversionTable.standard(this);
+
 	@Override
 	public Volt get120Volt() {
 		return getVolt();
@@ -58,17 +62,24 @@ public class SocketClassAdapterImpl extends Socket implements SocketAdapter{
 	@Override
 	public Volt get12Volt() {
 		Volt v= getVolt();
-		return convertVolt(v,10);
+		return convertVolt(v,12);
 	}
 
 	@Override
 	public Volt get3Volt() {
 		Volt v= getVolt();
-		return convertVolt(v,40);
+		return convertVolt(v,3);
+	}
+
+	@Override
+	public Volt get(int targetVolts) {
+		Volt v= getVolt();
+		return convertVolt(v,targetVolts);
 	}
 	
-	private Volt convertVolt(Volt v, int i) {
-		return new Volt(v.getVolts()/i);
+	//Divisors come from the table; every call returns a new Volt that the caller is free to change
+	private Volt convertVolt(Volt v, int targetVolts) {
+		return new Volt(v.getVolts()/table.divisorFor(targetVolts));
 	}
 
 }
@@ -81,6 +92,7 @@ public class SocketObjectAdapterImpl implements SocketAdapter{
 
 	//Using Composition for adapter pattern
 	private Socket sock = new Socket();
+	private final VoltConversionTable table = VoltConversionTable.standard(sock);
 	
 	@Override
 	public Volt get120Volt() {
@@ -90,17 +102,591 @@ public class SocketObjectAdapterImpl implements SocketAdapter{
 	@Override
 	public Volt get12Volt() {
 		Volt v= sock.getVolt();
-		return convertVolt(v,10);
+		return convertVolt(v,12);
 	}
 
 	@Override
 	public Volt get3Volt() {
 		Volt v= sock.getVolt();
-		return convertVolt(v,40);
+		return convertVolt(v,3);
+	}
+
+	@Override
+	public Volt get(int targetVolts) {
+		Volt v= sock.getVolt();
+		return convertVolt(v,targetVolts);
 	}
 	
-	private Volt convertVolt(Volt v, int i) {
-		return new Volt(v.getVolts()/i);
+	//Divisors come from the table; every call returns a new Volt that the caller is free to change
+	private Volt convertVolt(Volt v, int targetVolts) {
+		return new Volt(v.getVolts()/table.divisorFor(targetVolts));
+	}
+}
+// Conversion Table
+// Instead of each adapter hard-coding its divisors, the ratios live in an immutable table that is built once per Socket.
+// Every supported target voltage maps to its divisor and to a precomputed, shared read-only Volt, so a lookup is a single
+// array read. The table has only final fields and is never modified, so it can be shared freely across threads.
+
+// package com.journaldev.design.adapter;
+
+public final class VoltConversionTable {
+
+	private final int sourceVolts;
+	private final int[] divisors;
+	private final Volt[] results;
+
+	//Builds the table for the given source voltage; each target must divide it exactly, so no lookup can
+	//silently return a voltage other than the one asked for
+	public VoltConversionTable(int sourceVolts, int... targetVolts) {
+		this(sourceVolts, targetVolts, exactDivisors(sourceVolts, targetVolts));
+	}
+
+	private VoltConversionTable(int sourceVolts, int[] targetVolts, int[] targetDivisors) {
+		int max = 0;
+		for (int target : targetVolts) {
+			max = Math.max(max, target);
+		}
+		this.sourceVolts = sourceVolts;
+		this.divisors = new int[max + 1];
+		this.results = new Volt[max + 1];
+		for (int i = 0; i < targetVolts.length; i++) {
+			divisors[targetVolts[i]] = targetDivisors[i];
+			results[targetVolts[i]] = VoltCache.valueOf(sourceVolts / targetDivisors[i]);
+		}
+	}
+
+	//The SocketAdapter contract: get120Volt passes the socket through, get12Volt divides by 10 and get3Volt by 40,
+	//whatever the socket's voltage (a 230V socket gives 230V, 23V and 5V)
+	public static VoltConversionTable standard(Socket sock) {
+		return new VoltConversionTable(sock.getVolt().getVolts(), new int[] {120, 12, 3}, new int[] {1, 10, 40});
+	}
+
+	private static int[] exactDivisors(int sourceVolts, int[] targetVolts) {
+		int[] result = new int[targetVolts.length];
+		for (int i = 0; i < targetVolts.length; i++) {
+			int target = targetVolts[i];
+			if (target <= 0 || target > sourceVolts || sourceVolts % target != 0) {
+				throw new IllegalArgumentException("Target " + target + "V cannot be derived from " + sourceVolts + "V");
+			}
+			result[i] = sourceVolts / target;
+		}
+		return result;
+	}
+
+	public int getSourceVolts() {
+		return sourceVolts;
+	}
+
+	//Returns the shared read-only Volt for a supported target voltage; adapters that hand out mutable Volts use divisorFor
+	public Volt get(int targetVolts) {
+		Volt v = targetVolts >= 0 && targetVolts < results.length ? results[targetVolts] : null;
+		if (v == null) {
+			throw new IllegalArgumentException("Unsupported target voltage: " + targetVolts);
+		}
+		return v;
+	}
+
+	//Returns the divisor that turns the source voltage into the target voltage
+	public int divisorFor(int targetVolts) {
+		get(targetVolts);
+		return divisors[targetVolts];
+	}
+}
+// Flyweight Volt Cache
+// Volt objects are mutable, so they cannot be shared as they are. The cache below hands out interned, read-only Volt
+// instances for common voltages, so an adapter that opts in (CachedSocketAdapterImpl) can return the same object for the
+// same value instead of allocating. The class and object adapters keep returning fresh Volts their callers may change.
+
+// package com.journaldev.design.adapter;
+
+public final class VoltCache {
+
+	private static final int CACHED_RANGE = 1024;
+	private static final Volt[] SMALL = new Volt[CACHED_RANGE];
+
+	static {
+		for (int i = 0; i < CACHED_RANGE; i++) {
+			SMALL[i] = new FixedVolt(i);
+		}
+	}
+
+	private VoltCache() {
+	}
+
+	//Returns a read-only Volt for the given voltage, shared for voltages below CACHED_RANGE. Others get a new instance,
+	//so readings from an unstable source cannot grow the cache without bound.
+	public static Volt valueOf(int volts) {
+		if (volts >= 0 && volts < CACHED_RANGE) {
+			return SMALL[volts];
+		}
+		return new FixedVolt(volts);
+	}
+
+	//Shared Volt instances must never change, so setVolts is rejected
+	private static final class FixedVolt extends Volt {
+
+		FixedVolt(int v) {
+			super(v);
+		}
+
+		@Override
+		public void setVolts(int volts) {
+			throw new UnsupportedOperationException("Cached Volt instances are read-only");
+		}
+	}
+}
+// Flyweight Adapter Implementation
+// This object adapter returns interned Volt instances and memoizes each conversion per (source voltage, divisor).
+// When the socket is known to be stable, the source voltage is read once and every get*Volt call is allocation-free.
+
+// package com.journaldev.design.adapter;
+
+public class CachedSocketAdapterImpl implements SocketAdapter{
+
+	private final Socket sock;
+	private final boolean stableSource;
+	private final VoltConversionTable table;
+	private final Conversion to120;
+	private final Conversion to12;
+	private final Conversion to3;
+
+	public CachedSocketAdapterImpl() {
+		this(new Socket(), true);
+	}
+
+	//stableSource promises that sock.getVolt() always returns the same voltage
+	public CachedSocketAdapterImpl(Socket sock, boolean stableSource) {
+		this.sock = sock;
+		this.stableSource = stableSource;
+		this.table = VoltConversionTable.standard(sock);
+		this.to120 = new Conversion(table.divisorFor(120));
+		this.to12 = new Conversion(table.divisorFor(12));
+		this.to3 = new Conversion(table.divisorFor(3));
+		if (stableSource) {
+			int source = sock.getVolt().getVolts();
+			to120.convert(source);
+			to12.convert(source);
+			to3.convert(source);
+		}
+	}
+
+	@Override
+	public Volt get120Volt() {
+		return stableSource ? to120.cached() : to120.convert(sock.getVolt().getVolts());
+	}
+
+	@Override
+	public Volt get12Volt() {
+		return stableSource ? to12.cached() : to12.convert(sock.getVolt().getVolts());
+	}
+
+	@Override
+	public Volt get3Volt() {
+		return stableSource ? to3.cached() : to3.convert(sock.getVolt().getVolts());
+	}
+
+	//Divisors come from the table built at construction; an unstable source is re-read and divided on each call
+	@Override
+	public Volt get(int targetVolts) {
+		return stableSource ? table.get(targetVolts) : VoltCache.valueOf(sock.getVolt().getVolts() / table.divisorFor(targetVolts));
+	}
+
+	//Single-entry memo for one divisor; the entry is immutable so it can be swapped without locking
+	private static final class Conversion {
+
+		private final int divisor;
+		private volatile Memo memo;
+
+		Conversion(int divisor) {
+			this.divisor = divisor;
+		}
+
+		Volt cached() {
+			return memo.result;
+		}
+
+		Volt convert(int source) {
+			Memo current = memo;
+			if (current == null || current.source != source) {
+				current = new Memo(source, VoltCache.valueOf(source / divisor));
+				memo = current;
+			}
+			return current.result;
+		}
+	}
+
+	private static final class Memo {
+
+		final int source;
+		final Volt result;
+
+		Memo(int source, Volt result) {
+			this.source = source;
+			this.result = result;
+		}
+	}
+}
+// Measuring Allocations
+// JMH with -prof gc is not part of this example, so the benchmark below reads the per-thread allocation counter
+// directly and reports bytes allocated per get*Volt call for the object adapter and the flyweight adapter.
+
+// package com.journaldev.design.test;
+
+import java.lang.management.ManagementFactory;
+
+public class AdapterAllocationBenchmark {
+
+	private static final int CALLS = 10_000_000;
+
+	public static void main(String[] args) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		SocketAdapter[] adapters = {new SocketObjectAdapterImpl(), new CachedSocketAdapterImpl()};
+		for (int round = 0; round < 3; round++) {
+			for (SocketAdapter adapter : adapters) {
+				long sink = 0;
+				long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+				long begin = System.nanoTime();
+				for (int i = 0; i < CALLS; i++) {
+					sink += adapter.get12Volt().getVolts() + adapter.get3Volt().getVolts();
+				}
+				long nanos = System.nanoTime() - begin;
+				long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+				System.out.printf("%-24s %.2f ns/call %.2f bytes/call (checksum %d)%n", adapter.getClass().getSimpleName(),
+						(double) nanos / (2L * CALLS), (double) bytes / (2L * CALLS), sink);
+			}
+		}
+	}
+}
+// Bulk Conversion
+// Converting one Volt object per call does not scale to millions of readings per second. The converter below works on
+// raw int voltages in bulk, from arrays or IntBuffers (including direct, off-heap buffers), into a caller-supplied output.
+// Division by the fixed divisor is replaced with a precomputed multiply and shift, which gives exactly the same result
+// as integer division and keeps the loop free of branches and division instructions so the JIT can unroll or vectorize it.
+
+// package com.journaldev.design.adapter;
+
+import java.nio.IntBuffer;
+
+public final class BulkVoltConverter {
+
+	//Converters for the standard targets, with divisors taken from the conversion table of a default Socket
+	public static final BulkVoltConverter TO_12_VOLT = forTarget(VoltConversionTable.standard(new Socket()), 12);
+	public static final BulkVoltConverter TO_3_VOLT = forTarget(VoltConversionTable.standard(new Socket()), 3);
+
+	private final int divisor;
+	private final long multiplier;
+	private final int shift;
+
+	public BulkVoltConverter(int divisor) {
+		if (divisor <= 0) {
+			throw new IllegalArgumentException("divisor must be positive: " + divisor);
+		}
+		this.divisor = divisor;
+		// Granlund-Montgomery: with l = ceil(log2(divisor)) and m = ceil(2^(31+l) / divisor),
+		// |v| / divisor == (|v| * m) >>> (31+l) for every |v| <= 2^31, and |v| * m stays below 2^63
+		int l = 32 - Integer.numberOfLeadingZeros(divisor - 1);
+		this.shift = 31 + l;
+		this.multiplier = ((1L << shift) + divisor - 1) / divisor;
+	}
+
+	//Converts readings of the table's source voltage to the given supported target
+	public static BulkVoltConverter forTarget(VoltConversionTable table, int targetVolts) {
+		return new BulkVoltConverter(table.divisorFor(targetVolts));
+	}
+
+	public int getDivisor() {
+		return divisor;
+	}
+
+	//Same result as volts / divisor, rounding toward zero for negative readings
+	public int convert(int volts) {
+		long sign = volts >> 31;
+		long magnitude = (volts ^ sign) - sign;
+		return (int) ((((magnitude * multiplier) >>> shift) ^ sign) - sign);
+	}
+
+	//Converts length readings from src[srcPos..] into dst[dstPos..]; src and dst may be the same array
+	public void convert(int[] src, int srcPos, int[] dst, int dstPos, int length) {
+		if (srcPos < 0 || dstPos < 0 || length < 0 || srcPos + length > src.length || dstPos + length > dst.length) {
+			throw new IndexOutOfBoundsException("Invalid range: srcPos=" + srcPos + " dstPos=" + dstPos + " length=" + length);
+		}
+		long m = multiplier;
+		int s = shift;
+		for (int i = 0; i < length; i++) {
+			long sign = src[srcPos + i] >> 31;
+			long magnitude = (src[srcPos + i] ^ sign) - sign;
+			dst[dstPos + i] = (int) ((((magnitude * m) >>> s) ^ sign) - sign);
+		}
+	}
+
+	//Converts all remaining readings of src into dst and advances both positions, like IntBuffer.put(IntBuffer)
+	public void convert(IntBuffer src, IntBuffer dst) {
+		int length = src.remaining();
+		if (dst.remaining() < length) {
+			throw new IllegalArgumentException("Output buffer has " + dst.remaining() + " slots for " + length + " readings");
+		}
+		int srcPos = src.position();
+		int dstPos = dst.position();
+		if (src.hasArray() && dst.hasArray()) {
+			convert(src.array(), src.arrayOffset() + srcPos, dst.array(), dst.arrayOffset() + dstPos, length);
+		} else {
+			long m = multiplier;
+			int s = shift;
+			for (int i = 0; i < length; i++) {
+				long sign = src.get(srcPos + i) >> 31;
+				long magnitude = (src.get(srcPos + i) ^ sign) - sign;
+				dst.put(dstPos + i, (int) ((((magnitude * m) >>> s) ^ sign) - sign));
+			}
+		}
+		src.position(srcPos + length);
+		dst.position(dstPos + length);
+	}
+}
+// Bulk Conversion Benchmark
+// Compares converting readings one Volt object at a time with the bulk array and off-heap paths.
+
+// package com.journaldev.design.test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+public class BulkConversionBenchmark {
+
+	private static final int READINGS = 1 << 20;
+
+	public static void main(String[] args) {
+		int[] raw = new int[READINGS];
+		Random random = new Random(11);
+		for (int i = 0; i < raw.length; i++) {
+			raw[i] = random.nextInt(1000);
+		}
+		int[] out = new int[READINGS];
+		IntBuffer offHeapIn = ByteBuffer.allocateDirect(READINGS * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		IntBuffer offHeapOut = ByteBuffer.allocateDirect(READINGS * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		offHeapIn.put(raw).flip();
+		BulkVoltConverter converter = BulkVoltConverter.TO_12_VOLT;
+		int divisor = converter.getDivisor();
+
+		for (int round = 0; round < 10; round++) {
+			long begin = System.nanoTime();
+			for (int i = 0; i < raw.length; i++) {
+				// One Volt in and one Volt out for each reading
+				Volt v = new Volt(raw[i]);
+				out[i] = new Volt(v.getVolts() / divisor).getVolts();
+			}
+			long perElementNanos = System.nanoTime() - begin;
+
+			begin = System.nanoTime();
+			converter.convert(raw, 0, out, 0, raw.length);
+			long arrayNanos = System.nanoTime() - begin;
+
+			offHeapIn.rewind();
+			offHeapOut.clear();
+			begin = System.nanoTime();
+			converter.convert(offHeapIn, offHeapOut);
+			long offHeapNanos = System.nanoTime() - begin;
+
+			System.out.printf("round %d: per-element=%.2f ns bulk array=%.2f ns bulk off-heap=%.2f ns (per reading)%n", round,
+					(double) perElementNanos / READINGS, (double) arrayNanos / READINGS, (double) offHeapNanos / READINGS);
+		}
+	}
+}
+// Adapter Pool
+// A single Socket behind an adapter becomes a serialization point when many threads ask for voltages at once. The pool
+// below fronts several adapters, each over its own Socket, and routes every request to the less loaded of two randomly
+// chosen adapters ("power of two choices"). Load is tracked with per-socket counters, so there is no global lock and
+// threads only touch the two counters they sample.
+
+// package com.journaldev.design.adapter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SocketAdapterPool implements SocketAdapter{
+
+	private final Slot[] slots;
+
+	public SocketAdapterPool(SocketAdapter... adapters) {
+		if (adapters.length == 0) {
+			throw new IllegalArgumentException("The pool needs at least one adapter");
+		}
+		this.slots = new Slot[adapters.length];
+		for (int i = 0; i < adapters.length; i++) {
+			slots[i] = new Slot(adapters[i]);
+		}
+	}
+
+	//Fronts each socket with an object adapter that reads the socket on every request
+	public static SocketAdapterPool forSockets(Socket... sockets) {
+		SocketAdapter[] adapters = new SocketAdapter[sockets.length];
+		for (int i = 0; i < sockets.length; i++) {
+			adapters[i] = new CachedSocketAdapterImpl(sockets[i], false);
+		}
+		return new SocketAdapterPool(adapters);
+	}
+
+	@Override
+	public Volt get120Volt() {
+		return get(120);
+	}
+
+	@Override
+	public Volt get12Volt() {
+		return get(12);
+	}
+
+	@Override
+	public Volt get3Volt() {
+		return get(3);
+	}
+
+	@Override
+	public Volt get(int targetVolts) {
+		Slot slot = select();
+		IN_FLIGHT.incrementAndGet(slot);
+		try {
+			return slot.adapter.get(targetVolts);
+		} finally {
+			IN_FLIGHT.decrementAndGet(slot);
+			slot.served.increment();
+		}
+	}
+
+	public int size() {
+		return slots.length;
+	}
+
+	//Requests served by each socket so far, in the order the adapters were given
+	public long[] servedPerSocket() {
+		long[] served = new long[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			served[i] = slots[i].served.sum();
+		}
+		return served;
+	}
+
+	//Share of all requests served by each socket, between 0 and 1
+	public double[] utilization() {
+		long[] served = servedPerSocket();
+		long total = 0;
+		for (long count : served) {
+			total += count;
+		}
+		double[] shares = new double[served.length];
+		for (int i = 0; i < served.length; i++) {
+			shares[i] = total == 0 ? 0 : (double) served[i] / total;
+		}
+		return shares;
+	}
+
+	private Slot select() {
+		if (slots.length == 1) {
+			return slots[0];
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Slot first = slots[random.nextInt(slots.length)];
+		Slot second = slots[random.nextInt(slots.length)];
+		return second.inFlight < first.inFlight ? second : first;
+	}
+
+	private static final AtomicIntegerFieldUpdater<InFlightCounter> IN_FLIGHT =
+			AtomicIntegerFieldUpdater.newUpdater(InFlightCounter.class, "inFlight");
+
+	//The in-flight counter is written on every request, so it is padded with 64 bytes on each side to keep the counters
+	//of neighbouring slots, which are usually allocated next to each other, off a shared cache line. Superclass fields
+	//are laid out first, so the hierarchy puts one padding block before the counter and one after it.
+	private static class LeftPadding {
+
+		long p01, p02, p03, p04, p05, p06, p07, p08;
+	}
+
+	private static class InFlightCounter extends LeftPadding {
+
+		volatile int inFlight;
+	}
+
+	private static class RightPadding extends InFlightCounter {
+
+		long p11, p12, p13, p14, p15, p16, p17, p18;
+	}
+
+	private static final class Slot extends RightPadding {
+
+		final SocketAdapter adapter;
+		//LongAdder spreads contended increments over its own padded cells
+		final LongAdder served = new LongAdder();
+
+		Slot(SocketAdapter adapter) {
+			this.adapter = adapter;
+		}
+	}
+}
+// Adapter Pool Benchmark
+// Measures aggregate throughput as threads are added, for one shared socket and for a pool with one socket per core.
+// Each socket reading is made deliberately slow and exclusive to stand in for a real device.
+
+// package com.journaldev.design.test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+public class AdapterPoolBenchmark {
+
+	private static final long REQUESTS = 2_000_000L;
+
+	//Socket that serves one reading at a time and takes a little while to do so
+	static class SlowSocket extends Socket {
+
+		private long noise;
+
+		@Override
+		public synchronized Volt getVolt() {
+			for (int i = 0; i < 200; i++) {
+				noise = noise * 6364136223846793005L + 1;
+			}
+			return VoltCache.valueOf(120);
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int cores = Runtime.getRuntime().availableProcessors();
+		Socket[] sockets = new Socket[cores];
+		for (int i = 0; i < cores; i++) {
+			sockets[i] = new SlowSocket();
+		}
+		SocketAdapter single = new CachedSocketAdapterImpl(new SlowSocket(), false);
+		SocketAdapterPool pool = SocketAdapterPool.forSockets(sockets);
+		for (int threads = 1; threads <= cores * 2; threads *= 2) {
+			System.out.printf("threads=%d single socket=%.0f req/s pool of %d=%.0f req/s%n", threads,
+					run(single, threads), cores, run(pool, threads));
+		}
+		System.out.println("pool utilization per socket: " + Arrays.toString(pool.utilization()));
+	}
+
+	private static double run(SocketAdapter adapter, int threads) throws InterruptedException {
+		long perThread = REQUESTS / threads;
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread(() -> {
+				try {
+					start.await();
+					for (long i = 0; i < perThread; i++) {
+						adapter.get12Volt();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		done.await();
+		return perThread * threads * 1e9 / (System.nanoTime() - begin);
 	}
 }
 // Notice that both the adapter implementations are almost same and they implement the SocketAdapter interface. The adapter interface can also be an abstract class. Here is a test program to consume our adapter design pattern implementation.
@@ -1,9 +1,40 @@
 // The Bridge design pattern is used to separate abstraction from implementation, allowing them to vary independently. Here's a complex example in Java where we'll model the abstraction of a Shape hierarchy and its drawing implementation.
 
 // Copy
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 // Abstraction
 interface Shape {
     void draw();
+
+    // Adds the shape to a retained-mode scene instead of drawing it immediately
+    void record(RetainedScene scene);
+}
+
+// Shape with an axis-aligned bounding box that can be moved, as needed by spatial indexes
+interface BoundedShape extends Shape {
+    double getMinX();
+
+    double getMinY();
+
+    double getMaxX();
+
+    double getMaxY();
+
+    void moveBy(double dx, double dy);
 }
 
 // Implementor
@@ -11,10 +42,114 @@ interface DrawingAPI {
     void drawCircle(double x, double y, double radius);
 
     void drawRectangle(double x, double y, double width, double height);
+
+    // Bulk entry points used by the retained-mode renderer; the defaults fall back to one call per shape
+    default void drawCircles(double[] xs, double[] ys, double[] radii, int count) {
+        for (int i = 0; i < count; i++) {
+            drawCircle(xs[i], ys[i], radii[i]);
+        }
+    }
+
+    default void drawRectangles(double[] xs, double[] ys, double[] widths, double[] heights, int count) {
+        for (int i = 0; i < count; i++) {
+            drawRectangle(xs[i], ys[i], widths[i], heights[i]);
+        }
+    }
+
+    // Called once at the end of a retained-mode frame, so buffered output can be written in one go
+    default void endFrame() {
+    }
+}
+
+// Implementor that can render into a private buffer, which lets TiledRenderer draw tiles on several threads at once
+interface TileableDrawingAPI extends DrawingAPI {
+    // Creates an independent instance of this backend that appends the text it would print to out
+    DrawingAPI newTileInstance(StringBuilder out);
+}
+
+// Per-frame text buffer shared by the concrete implementors. It produces the same lines as their printf calls,
+// but formats numbers without going through Formatter and writes the whole frame with a single print.
+class FrameBuffer {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final String circlePrefix;
+    private final String rectanglePrefix;
+    private final char decimalSeparator;
+    private final boolean asciiDigits;
+    private final StringBuilder text;
+
+    FrameBuffer(String apiName) {
+        this(apiName, new StringBuilder());
+    }
+
+    // Appends into the given builder, for callers that collect the text themselves
+    FrameBuffer(String apiName, StringBuilder text) {
+        this.text = text;
+        this.circlePrefix = apiName + " - Drawing Circle at (";
+        this.rectanglePrefix = apiName + " - Drawing Rectangle at (";
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.asciiDigits = symbols.getZeroDigit() == '0';
+    }
+
+    void appendCircle(double x, double y, double radius) {
+        text.append(circlePrefix);
+        appendFixed2(x);
+        text.append(", ");
+        appendFixed2(y);
+        text.append(") with radius ");
+        appendFixed2(radius);
+        text.append(LINE_SEPARATOR);
+    }
+
+    void appendRectangle(double x, double y, double width, double height) {
+        text.append(rectanglePrefix);
+        appendFixed2(x);
+        text.append(", ");
+        appendFixed2(y);
+        text.append(") with width ");
+        appendFixed2(width);
+        text.append(" and height ");
+        appendFixed2(height);
+        text.append(LINE_SEPARATOR);
+    }
+
+    void flush(PrintStream out) {
+        if (text.length() > 0) {
+            out.print(text);
+            out.flush();
+            text.setLength(0);
+        }
+    }
+
+    // Equivalent of %.2f. Values whose rounding is ambiguous in binary (within a hair of a half cent),
+    // non-finite or very large values, and locales with non-ASCII digits go through String.format.
+    // The hair grows with the value: multiplying by 100 can be off by up to an ulp of the product, so the window
+    // is a few ulps wide once that exceeds the fixed 1e-6 used for small values.
+    private void appendFixed2(double value) {
+        double scaled = Math.abs(value) * 100;
+        if (!asciiDigits || !(scaled < 1e15)
+                || Math.abs(scaled - Math.floor(scaled) - 0.5) < Math.max(1e-6, 8 * Math.ulp(scaled))) {
+            text.append(String.format("%.2f", value));
+            return;
+        }
+        long cents = Math.round(scaled);
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            text.append('-');
+        }
+        text.append(cents / 100).append(decimalSeparator);
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
 }
 
 // Concrete Implementor
-class DrawingAPI1 implements DrawingAPI {
+class DrawingAPI1 implements TileableDrawingAPI {
+    private final FrameBuffer frame = new FrameBuffer("API1");
+
     @Override
     public void drawCircle(double x, double y, double radius) {
         System.out.printf("API1 - Drawing Circle at (%.2f, %.2f) with radius %.2f%n", x, y, radius);
@@ -24,9 +159,35 @@ class DrawingAPI1 implements DrawingAPI {
     public void drawRectangle(double x, double y, double width, double height) {
         System.out.printf("API1 - Drawing Rectangle at (%.2f, %.2f) with width %.2f and height %.2f%n", x, y, width, height);
     }
+
+    @Override
+    public void drawCircles(double[] xs, double[] ys, double[] radii, int count) {
+        for (int i = 0; i < count; i++) {
+            frame.appendCircle(xs[i], ys[i], radii[i]);
+        }
+    }
+
+    @Override
+    public void drawRectangles(double[] xs, double[] ys, double[] widths, double[] heights, int count) {
+        for (int i = 0; i < count; i++) {
+            frame.appendRectangle(xs[i], ys[i], widths[i], heights[i]);
+        }
+    }
+
+    @Override
+    public void endFrame() {
+        frame.flush(System.out);
+    }
+
+    @Override
+    public DrawingAPI newTileInstance(StringBuilder out) {
+        return new BufferedDrawingAPI("API1", out);
+    }
 }
 
-class DrawingAPI2 implements DrawingAPI {
+class DrawingAPI2 implements TileableDrawingAPI {
+    private final FrameBuffer frame = new FrameBuffer("API2");
+
     @Override
     public void drawCircle(double x, double y, double radius) {
         System.out.printf("API2 - Drawing Circle at (%.2f, %.2f) with radius %.2f%n", x, y, radius);
@@ -36,10 +197,53 @@ class DrawingAPI2 implements DrawingAPI {
     public void drawRectangle(double x, double y, double width, double height) {
         System.out.printf("API2 - Drawing Rectangle at (%.2f, %.2f) with width %.2f and height %.2f%n", x, y, width, height);
     }
+
+    @Override
+    public void drawCircles(double[] xs, double[] ys, double[] radii, int count) {
+        for (int i = 0; i < count; i++) {
+            frame.appendCircle(xs[i], ys[i], radii[i]);
+        }
+    }
+
+    @Override
+    public void drawRectangles(double[] xs, double[] ys, double[] widths, double[] heights, int count) {
+        for (int i = 0; i < count; i++) {
+            frame.appendRectangle(xs[i], ys[i], widths[i], heights[i]);
+        }
+    }
+
+    @Override
+    public void endFrame() {
+        frame.flush(System.out);
+    }
+
+    @Override
+    public DrawingAPI newTileInstance(StringBuilder out) {
+        return new BufferedDrawingAPI("API2", out);
+    }
+}
+
+// Tile instance shared by DrawingAPI1 and DrawingAPI2: appends the same lines they print to a caller-owned buffer
+class BufferedDrawingAPI implements DrawingAPI {
+    private final FrameBuffer frame;
+
+    BufferedDrawingAPI(String apiName, StringBuilder out) {
+        this.frame = new FrameBuffer(apiName, out);
+    }
+
+    @Override
+    public void drawCircle(double x, double y, double radius) {
+        frame.appendCircle(x, y, radius);
+    }
+
+    @Override
+    public void drawRectangle(double x, double y, double width, double height) {
+        frame.appendRectangle(x, y, width, height);
+    }
 }
 
 // Refined Abstraction
-class Circle implements Shape {
+class Circle implements BoundedShape {
     private double x, y, radius;
     private DrawingAPI drawingAPI;
 
@@ -54,9 +258,40 @@ class Circle implements Shape {
     public void draw() {
         drawingAPI.drawCircle(x, y, radius);
     }
+
+    @Override
+    public void record(RetainedScene scene) {
+        scene.addCircle(drawingAPI, x, y, radius);
+    }
+
+    @Override
+    public double getMinX() {
+        return x - radius;
+    }
+
+    @Override
+    public double getMinY() {
+        return y - radius;
+    }
+
+    @Override
+    public double getMaxX() {
+        return x + radius;
+    }
+
+    @Override
+    public double getMaxY() {
+        return y + radius;
+    }
+
+    @Override
+    public void moveBy(double dx, double dy) {
+        x += dx;
+        y += dy;
+    }
 }
 
-class Rectangle implements Shape {
+class Rectangle implements BoundedShape {
     private double x, y, width, height;
     private DrawingAPI drawingAPI;
 
@@ -72,6 +307,764 @@ class Rectangle implements Shape {
     public void draw() {
         drawingAPI.drawRectangle(x, y, width, height);
     }
+
+    @Override
+    public void record(RetainedScene scene) {
+        scene.addRectangle(drawingAPI, x, y, width, height);
+    }
+
+    // (x, y) is the corner with the smallest coordinates
+    @Override
+    public double getMinX() {
+        return x;
+    }
+
+    @Override
+    public double getMinY() {
+        return y;
+    }
+
+    @Override
+    public double getMaxX() {
+        return x + width;
+    }
+
+    @Override
+    public double getMaxY() {
+        return y + height;
+    }
+
+    @Override
+    public void moveBy(double dx, double dy) {
+        x += dx;
+        y += dy;
+    }
+}
+
+// Uniform-grid spatial index over shape bounds. Each shape is listed in every cell its bounds overlap,
+// and drawVisible() only visits the cells under the viewport, so off-screen shapes never reach a DrawingAPI.
+// Shapes can be inserted, moved and removed one at a time without rebuilding the grid.
+// Shapes spanning more than MAX_CELLS_PER_SHAPE cells, or with non-finite bounds, are kept in a separate list
+// that every query scans, so one huge shape cannot make an insert or move walk an unbounded number of cells.
+class SpatialGrid {
+    private static final int MAX_CELLS_PER_SHAPE = 64;
+
+    private final double cellSize;
+    private final CellMap cells = new CellMap();
+    private final List<Entry> oversized = new ArrayList<>();
+    private final Map<BoundedShape, Entry> entries = new IdentityHashMap<>();
+    private int queryStamp;
+    // Cell range that has ever held a shape since the grid was last empty; it only grows, so it may overstate the extent
+    private long occupiedMinCellX = Long.MAX_VALUE;
+    private long occupiedMinCellY = Long.MAX_VALUE;
+    private long occupiedMaxCellX = Long.MIN_VALUE;
+    private long occupiedMaxCellY = Long.MIN_VALUE;
+
+    public SpatialGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    public void insert(BoundedShape shape) {
+        if (entries.containsKey(shape)) {
+            throw new IllegalArgumentException("Shape is already indexed");
+        }
+        Entry entry = new Entry(shape);
+        entries.put(shape, entry);
+        link(entry);
+    }
+
+    // Returns false if the shape was not indexed
+    public boolean remove(BoundedShape shape) {
+        Entry entry = entries.remove(shape);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    // Moves the shape and updates only the cells it leaves or enters
+    public void move(BoundedShape shape, double dx, double dy) {
+        Entry entry = entries.get(shape);
+        if (entry == null) {
+            throw new IllegalArgumentException("Shape is not indexed");
+        }
+        shape.moveBy(dx, dy);
+        boolean relink;
+        if (entry.oversized) {
+            // An oversized shape stays in the oversized list until it fits the grid again
+            relink = !isOversized(shape);
+        } else {
+            relink = cell(shape.getMinX()) != entry.minCellX || cell(shape.getMinY()) != entry.minCellY
+                    || cell(shape.getMaxX()) != entry.maxCellX || cell(shape.getMaxY()) != entry.maxCellY;
+        }
+        if (relink) {
+            unlink(entry);
+            link(entry);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Draws every shape whose bounds intersect the viewport and returns how many were drawn
+    public int drawVisible(double minX, double minY, double maxX, double maxY) {
+        int stamp = ++queryStamp;
+        int drawn = drawCell(oversized, stamp, minX, minY, maxX, maxY);
+        // Huge or infinite viewports saturate cell() at the long range, so only the occupied part of the range is probed
+        long minCellX = Math.max(cell(minX), occupiedMinCellX);
+        long minCellY = Math.max(cell(minY), occupiedMinCellY);
+        long maxCellX = Math.min(cell(maxX), occupiedMaxCellX);
+        long maxCellY = Math.min(cell(maxY), occupiedMaxCellY);
+        if (minCellX > maxCellX || minCellY > maxCellY) {
+            return drawn;
+        }
+        // When zoomed far out, walking the occupied cells is cheaper than probing every cell in range.
+        // The cell count is computed in double because the range of a far-flung grid can exceed a long.
+        if (((double) maxCellX - minCellX + 1) * ((double) maxCellY - minCellY + 1) > cells.size()) {
+            for (int slot = 0; slot < cells.capacity(); slot++) {
+                List<Entry> cell = cells.valueAt(slot);
+                if (cell != null) {
+                    drawn += drawCell(cell, stamp, minX, minY, maxX, maxY);
+                }
+            }
+        } else {
+            for (long cx = minCellX; cx <= maxCellX; cx++) {
+                for (long cy = minCellY; cy <= maxCellY; cy++) {
+                    List<Entry> cell = cells.get(key(cx, cy));
+                    if (cell != null) {
+                        drawn += drawCell(cell, stamp, minX, minY, maxX, maxY);
+                    }
+                }
+            }
+        }
+        return drawn;
+    }
+
+    private int drawCell(List<Entry> cell, int stamp, double minX, double minY, double maxX, double maxY) {
+        int drawn = 0;
+        for (int i = 0; i < cell.size(); i++) {
+            Entry entry = cell.get(i);
+            // A shape spanning several cells is drawn only the first time the query meets it
+            if (entry.stamp == stamp) {
+                continue;
+            }
+            entry.stamp = stamp;
+            BoundedShape shape = entry.shape;
+            if (shape.getMaxX() >= minX && shape.getMinX() <= maxX && shape.getMaxY() >= minY && shape.getMinY() <= maxY) {
+                shape.draw();
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    private void link(Entry entry) {
+        BoundedShape shape = entry.shape;
+        if (isOversized(shape)) {
+            entry.oversized = true;
+            oversized.add(entry);
+            return;
+        }
+        entry.oversized = false;
+        entry.minCellX = cell(shape.getMinX());
+        entry.minCellY = cell(shape.getMinY());
+        entry.maxCellX = cell(shape.getMaxX());
+        entry.maxCellY = cell(shape.getMaxY());
+        occupiedMinCellX = Math.min(occupiedMinCellX, entry.minCellX);
+        occupiedMinCellY = Math.min(occupiedMinCellY, entry.minCellY);
+        occupiedMaxCellX = Math.max(occupiedMaxCellX, entry.maxCellX);
+        occupiedMaxCellY = Math.max(occupiedMaxCellY, entry.maxCellY);
+        for (long cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (long cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                cells.add(key(cx, cy), entry);
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.oversized) {
+            oversized.remove(entry);
+            return;
+        }
+        for (long cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (long cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                cells.remove(key(cx, cy), entry);
+            }
+        }
+        if (cells.isEmpty()) {
+            occupiedMinCellX = Long.MAX_VALUE;
+            occupiedMinCellY = Long.MAX_VALUE;
+            occupiedMaxCellX = Long.MIN_VALUE;
+            occupiedMaxCellY = Long.MIN_VALUE;
+        }
+    }
+
+    // True for shapes with non-finite bounds or spanning more cells than an insert or move should walk
+    private boolean isOversized(BoundedShape shape) {
+        double minX = shape.getMinX();
+        double minY = shape.getMinY();
+        double maxX = shape.getMaxX();
+        double maxY = shape.getMaxY();
+        if (!Double.isFinite(minX) || !Double.isFinite(minY) || !Double.isFinite(maxX) || !Double.isFinite(maxY)) {
+            return true;
+        }
+        // Computed in double because the cell range of a far-flung shape can exceed a long
+        return ((double) cell(maxX) - cell(minX) + 1) * ((double) cell(maxY) - cell(minY) + 1) > MAX_CELLS_PER_SHAPE;
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+
+    // Grid bookkeeping for one shape: the cell range it is listed in and the last query that visited it
+    private static final class Entry {
+        final BoundedShape shape;
+        long minCellX;
+        long minCellY;
+        long maxCellX;
+        long maxCellY;
+        boolean oversized;
+        int stamp;
+
+        Entry(BoundedShape shape) {
+            this.shape = shape;
+        }
+    }
+
+    // Open-addressing map from packed cell key to the entries listed in that cell, keyed by primitive long
+    private static final class CellMap {
+        private long[] keys = new long[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        List<Entry> get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return (List<Entry>) values[slot];
+                }
+            }
+            return null;
+        }
+
+        void add(long key, Entry entry) {
+            List<Entry> list = get(key);
+            if (list == null) {
+                if (2 * (size + 1) > keys.length) {
+                    resize();
+                }
+                list = new ArrayList<>(4);
+                insert(key, list);
+                size++;
+            }
+            list.add(entry);
+        }
+
+        // Frees the cell once its last entry is gone, so shapes moving across the world do not accumulate empty cells
+        void remove(long key, Entry entry) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (values[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == null) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<Entry> list = (List<Entry>) values[slot];
+            list.remove(entry);
+            if (!list.isEmpty()) {
+                return;
+            }
+            values[slot] = null;
+            size--;
+            // Re-insert the rest of the probe cluster so lookups past the freed slot still find their keys
+            for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                Object moved = values[next];
+                values[next] = null;
+                insert(keys[next], moved);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        // Slots are numbered 0 to capacity() - 1; valueAt returns null for an empty slot
+        int capacity() {
+            return keys.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Entry> valueAt(int slot) {
+            return (List<Entry>) values[slot];
+        }
+
+        private void insert(long key, Object list) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = list;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
+
+// Retained-mode scene: shapes are recorded into per-DrawingAPI, per-primitive batches of primitive arrays,
+// and flush() hands each batch to its DrawingAPI in one bulk call. Batches are ordered by implementation class
+// name, circles before rectangles, and their arrays are reused from frame to frame.
+class RetainedScene {
+    private final Map<DrawingAPI, Batch> batchesByApi = new IdentityHashMap<>();
+    private final List<Batch> batches = new ArrayList<>();
+
+    public void add(Shape shape) {
+        shape.record(this);
+    }
+
+    void addCircle(DrawingAPI api, double x, double y, double radius) {
+        batchFor(api).circles.add(x, y, radius, 0);
+    }
+
+    void addRectangle(DrawingAPI api, double x, double y, double width, double height) {
+        batchFor(api).rectangles.add(x, y, width, height);
+    }
+
+    // Draws every recorded shape, ends the frame on each DrawingAPI and empties the scene for the next frame
+    public void flush() {
+        batches.sort(Comparator.comparing(batch -> batch.api.getClass().getName()));
+        for (Batch batch : batches) {
+            Columns c = batch.circles;
+            batch.api.drawCircles(c.xs, c.ys, c.a, c.count);
+            Columns r = batch.rectangles;
+            batch.api.drawRectangles(r.xs, r.ys, r.a, r.b, r.count);
+        }
+        for (Batch batch : batches) {
+            batch.api.endFrame();
+            batch.circles.count = 0;
+            batch.rectangles.count = 0;
+        }
+    }
+
+    private Batch batchFor(DrawingAPI api) {
+        Batch batch = batchesByApi.get(api);
+        if (batch == null) {
+            batch = new Batch(api);
+            batchesByApi.put(api, batch);
+            batches.add(batch);
+        }
+        return batch;
+    }
+
+    private static final class Batch {
+        final DrawingAPI api;
+        final Columns circles = new Columns();
+        final Columns rectangles = new Columns();
+
+        Batch(DrawingAPI api) {
+            this.api = api;
+        }
+    }
+
+    // Growable columns of shape geometry; a is the radius or width, b the height
+    private static final class Columns {
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+        double[] a = new double[16];
+        double[] b = new double[16];
+        int count;
+
+        void add(double x, double y, double first, double second) {
+            if (count == xs.length) {
+                int capacity = count * 2;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                a = Arrays.copyOf(a, capacity);
+                b = Arrays.copyOf(b, capacity);
+            }
+            xs[count] = x;
+            ys[count] = y;
+            a[count] = first;
+            b[count] = second;
+            count++;
+        }
+    }
+}
+
+// Columnar shape storage: one primitive array per geometry field plus a type tag and a DrawingAPI index per shape,
+// instead of one heap object per Circle or Rectangle. Iterating the columns is cache-friendly, and a Shape
+// view is only created when a caller asks for one.
+class ShapeStore {
+    static final byte CIRCLE = 0;
+    static final byte RECTANGLE = 1;
+    private static final int MAX_APIS = 256;
+
+    private final List<DrawingAPI> apis = new ArrayList<>();
+    private final Map<DrawingAPI, Integer> apiIds = new IdentityHashMap<>();
+    private byte[] types;
+    private byte[] apiIndexes;
+    private double[] xs;
+    private double[] ys;
+    private double[] as; // radius for circles, width for rectangles
+    private double[] bs; // height for rectangles, unused for circles
+    private int size;
+
+    public ShapeStore() {
+        this(16);
+    }
+
+    public ShapeStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        types = new byte[capacity];
+        apiIndexes = new byte[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        as = new double[capacity];
+        bs = new double[capacity];
+    }
+
+    // Returns the index of the new shape
+    public int addCircle(double x, double y, double radius, DrawingAPI api) {
+        return add(CIRCLE, x, y, radius, 0, api);
+    }
+
+    public int addRectangle(double x, double y, double width, double height, DrawingAPI api) {
+        return add(RECTANGLE, x, y, width, height, api);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Draws shape by shape in insertion order, like calling draw() on each Circle and Rectangle
+    public void drawAll() {
+        for (int i = 0; i < size; i++) {
+            draw(i);
+        }
+    }
+
+    // Lightweight Shape view over one row of the store
+    public Shape shapeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of " + size);
+        }
+        return new ShapeView(index);
+    }
+
+    void draw(int index) {
+        drawWith(index, apis.get(apiIndexes[index] & 0xFF));
+    }
+
+    // Draws the shape through the given backend instead of the one it was added with
+    void drawWith(int index, DrawingAPI api) {
+        if (types[index] == CIRCLE) {
+            api.drawCircle(xs[index], ys[index], as[index]);
+        } else {
+            api.drawRectangle(xs[index], ys[index], as[index], bs[index]);
+        }
+    }
+
+    int apiCount() {
+        return apis.size();
+    }
+
+    DrawingAPI apiAt(int apiIndex) {
+        return apis.get(apiIndex);
+    }
+
+    int apiIndexOf(int index) {
+        return apiIndexes[index] & 0xFF;
+    }
+
+    // Smallest x and y covered by the shape
+    double minX(int index) {
+        return types[index] == CIRCLE ? xs[index] - as[index] : xs[index];
+    }
+
+    double minY(int index) {
+        return types[index] == CIRCLE ? ys[index] - as[index] : ys[index];
+    }
+
+    void record(int index, RetainedScene scene) {
+        DrawingAPI api = apis.get(apiIndexes[index] & 0xFF);
+        if (types[index] == CIRCLE) {
+            scene.addCircle(api, xs[index], ys[index], as[index]);
+        } else {
+            scene.addRectangle(api, xs[index], ys[index], as[index], bs[index]);
+        }
+    }
+
+    private int add(byte type, double x, double y, double a, double b, DrawingAPI api) {
+        if (size == xs.length) {
+            grow();
+        }
+        types[size] = type;
+        apiIndexes[size] = (byte) idOf(api);
+        xs[size] = x;
+        ys[size] = y;
+        as[size] = a;
+        bs[size] = b;
+        return size++;
+    }
+
+    private int idOf(DrawingAPI api) {
+        Integer id = apiIds.get(api);
+        if (id == null) {
+            if (apis.size() == MAX_APIS) {
+                throw new IllegalStateException("A ShapeStore supports at most " + MAX_APIS + " DrawingAPI instances");
+            }
+            id = apis.size();
+            apis.add(api);
+            apiIds.put(api, id);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        apiIndexes = Arrays.copyOf(apiIndexes, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        as = Arrays.copyOf(as, capacity);
+        bs = Arrays.copyOf(bs, capacity);
+    }
+
+    private final class ShapeView implements Shape {
+        private final int index;
+
+        ShapeView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void draw() {
+            ShapeStore.this.draw(index);
+        }
+
+        @Override
+        public void record(RetainedScene scene) {
+            ShapeStore.this.record(index, scene);
+        }
+    }
+}
+
+// Renders a ShapeStore in parallel: shapes are partitioned into square tiles by their minimum corner, every tile is
+// rendered on a fork-join pool through its own DrawingAPI instances, and the per-tile outputs are merged back in
+// store order, so the result is identical to drawing the shapes one by one.
+class TiledRenderer implements AutoCloseable {
+    private final double tileSize;
+    private final ForkJoinPool pool;
+
+    public TiledRenderer(double tileSize, int parallelism) {
+        if (!(tileSize > 0)) {
+            throw new IllegalArgumentException("tileSize must be positive: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    // Prints the store's drawing to out. If any of its DrawingAPIs is not a TileableDrawingAPI, the store is drawn
+    // serially with drawAll() instead, and each backend draws wherever it normally does.
+    public void render(ShapeStore store, PrintStream out) {
+        if (!isTileable(store)) {
+            store.drawAll();
+            return;
+        }
+        out.print(render(store));
+        out.flush();
+    }
+
+    // True if every DrawingAPI used by the store can render into a tile buffer
+    public static boolean isTileable(ShapeStore store) {
+        for (int i = 0; i < store.apiCount(); i++) {
+            if (!(store.apiAt(i) instanceof TileableDrawingAPI)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the text the store's DrawingAPIs would print for drawAll(); every DrawingAPI must be a TileableDrawingAPI
+    public String render(ShapeStore store) {
+        if (!isTileable(store)) {
+            throw new IllegalArgumentException("Every DrawingAPI in the store must implement TileableDrawingAPI to render into text");
+        }
+        int size = store.size();
+        // Assign every shape to a tile, then list each tile's shapes in store order with a counting sort
+        TileIds tileIds = new TileIds();
+        int[] tileOf = new int[size];
+        for (int i = 0; i < size; i++) {
+            long tx = (long) Math.floor(store.minX(i) / tileSize);
+            long ty = (long) Math.floor(store.minY(i) / tileSize);
+            tileOf[i] = tileIds.idOf((tx << 32) ^ (ty & 0xFFFFFFFFL));
+        }
+        int tiles = tileIds.size();
+        int[] tileStart = new int[tiles + 1];
+        for (int i = 0; i < size; i++) {
+            tileStart[tileOf[i] + 1]++;
+        }
+        for (int t = 0; t < tiles; t++) {
+            tileStart[t + 1] += tileStart[t];
+        }
+        int[] rows = new int[size];
+        int[] fill = Arrays.copyOf(tileStart, tiles);
+        for (int i = 0; i < size; i++) {
+            rows[fill[tileOf[i]]++] = i;
+        }
+
+        StringBuilder[] outputs = new StringBuilder[tiles];
+        int[] lineEnds = new int[size];
+        List<Callable<Void>> tasks = new ArrayList<>(tiles);
+        for (int t = 0; t < tiles; t++) {
+            int tile = t;
+            tasks.add(() -> {
+                renderTile(store, rows, tileStart[tile], tileStart[tile + 1], outputs, tile, lineEnds);
+                return null;
+            });
+        }
+        for (Future<Void> result : pool.invokeAll(tasks)) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rendering tiles", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Tile rendering failed", e.getCause());
+            }
+        }
+
+        // Merge in store order: each tile's lines are already in store order, so a cursor per tile is enough
+        int total = 0;
+        for (StringBuilder output : outputs) {
+            total += output.length();
+        }
+        StringBuilder merged = new StringBuilder(total);
+        int[] cursor = Arrays.copyOf(tileStart, tiles);
+        for (int i = 0; i < size; i++) {
+            int tile = tileOf[i];
+            int position = cursor[tile]++;
+            int start = position == tileStart[tile] ? 0 : lineEnds[position - 1];
+            merged.append(outputs[tile], start, lineEnds[position]);
+        }
+        return merged.toString();
+    }
+
+    // Renders one tile; lineEnds[k] receives the end offset, in the tile's output, of the shape at rows[k]
+    private static void renderTile(ShapeStore store, int[] rows, int from, int to, StringBuilder[] outputs, int tile, int[] lineEnds) {
+        StringBuilder out = new StringBuilder();
+        DrawingAPI[] backends = new DrawingAPI[store.apiCount()];
+        for (int k = from; k < to; k++) {
+            int row = rows[k];
+            int apiIndex = store.apiIndexOf(row);
+            DrawingAPI backend = backends[apiIndex];
+            if (backend == null) {
+                backend = backends[apiIndex] = ((TileableDrawingAPI) store.apiAt(apiIndex)).newTileInstance(out);
+            }
+            store.drawWith(row, backend);
+            lineEnds[k] = out.length();
+        }
+        outputs[tile] = out;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Open-addressing map from packed tile key to a dense tile id, numbered in order of first appearance
+    private static final class TileIds {
+        private long[] keys = new long[16];
+        private int[] ids = new int[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        // Returns the key's id, assigning the next one if the key is new
+        int idOf(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return ids[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (2 * (size + 1) > keys.length) {
+                resize();
+                return idOf(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            ids[slot] = size;
+            return size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void insert(long key, int id) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            ids[slot] = id;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldIds.length * 2];
+            used = new boolean[oldUsed.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    insert(oldKeys[i], oldIds[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
 }
 
 public class BridgePatternExample {
@@ -89,6 +1082,208 @@ public class BridgePatternExample {
         circle2.draw();
         rectangle1.draw();
         rectangle2.draw();
+
+        // Retained mode: record the shapes, then draw them in batches with one write per DrawingAPI
+        RetainedScene scene = new RetainedScene();
+        scene.add(circle1);
+        scene.add(circle2);
+        scene.add(rectangle1);
+        scene.add(rectangle2);
+        scene.flush();
+
+        // Columnar storage: the same shapes as rows of primitive arrays, drawn in insertion order
+        ShapeStore store = new ShapeStore();
+        store.addCircle(1, 2, 3, api1);
+        store.addCircle(5, 7, 11, api2);
+        store.addRectangle(2, 3, 6, 9, api1);
+        store.addRectangle(4, 6, 8, 12, api2);
+        store.drawAll();
+
+        // Spatial index: only shapes inside the viewport are drawn
+        SpatialGrid grid = new SpatialGrid(10);
+        Circle movingCircle = new Circle(1, 2, 3, api1);
+        grid.insert(movingCircle);
+        grid.insert(new Rectangle(40, 40, 5, 5, api2));
+        grid.drawVisible(0, 0, 20, 20);
+        grid.move(movingCircle, 40, 40);
+        grid.drawVisible(0, 0, 20, 20); // the circle has moved out of view, nothing is drawn
+
+        // Tiled rendering: the store is rendered in parallel tiles and printed in the same order as drawAll()
+        try (TiledRenderer renderer = new TiledRenderer(5, Runtime.getRuntime().availableProcessors())) {
+            renderer.render(store, System.out);
+        }
+    }
+}
+
+// Scaling of tiled rendering from one worker up to every core, checked against the serial drawAll() output.
+// Run with: java TiledRendererBenchmark [shapes] (after compiling this file)
+class TiledRendererBenchmark {
+    private static final double WORLD = 10_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(9);
+        DrawingAPI api1 = new DrawingAPI1();
+        DrawingAPI api2 = new DrawingAPI2();
+        ShapeStore store = new ShapeStore(count);
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * WORLD;
+            double y = random.nextDouble() * WORLD;
+            if (i % 2 == 0) {
+                store.addCircle(x, y, random.nextDouble() * 10, i % 4 == 0 ? api1 : api2);
+            } else {
+                store.addRectangle(x, y, random.nextDouble() * 10, random.nextDouble() * 10, i % 4 == 1 ? api1 : api2);
+            }
+        }
+
+        PrintStream console = System.out;
+        ByteArrayOutputStream serialBytes = new ByteArrayOutputStream();
+        long begin = System.nanoTime();
+        System.setOut(new PrintStream(serialBytes, false));
+        try {
+            store.drawAll();
+        } finally {
+            System.out.flush();
+            System.setOut(console);
+        }
+        long serialNanos = System.nanoTime() - begin;
+        String serial = serialBytes.toString();
+        System.out.printf("serial drawAll: %d ms%n", serialNanos / 1_000_000);
+
+        for (int workers = 1; workers <= Runtime.getRuntime().availableProcessors(); workers *= 2) {
+            try (TiledRenderer renderer = new TiledRenderer(500, workers)) {
+                renderer.render(store); // warm-up
+                begin = System.nanoTime();
+                String tiled = renderer.render(store);
+                System.out.printf("tiled, %d workers: %d ms, identical to serial: %b%n",
+                        workers, (System.nanoTime() - begin) / 1_000_000, tiled.equals(serial));
+            }
+        }
+    }
+}
+
+// Pans and zooms a viewport over a large scene, drawing through the spatial index versus drawing every shape.
+// Run with: java -Xmx3g SpatialGridBenchmark [shapes] (after compiling this file)
+class SpatialGridBenchmark {
+    private static final double WORLD = 100_000;
+    private static final double VIEW_WIDTH = 1_920;
+    private static final double VIEW_HEIGHT = 1_080;
+    private static final int FRAMES = 100;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        ShapeStoreBenchmark.CountingDrawingAPI api = new ShapeStoreBenchmark.CountingDrawingAPI();
+        Random random = new Random(5);
+        BoundedShape[] shapes = new BoundedShape[count];
+        SpatialGrid grid = new SpatialGrid(256);
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * WORLD;
+            double y = random.nextDouble() * WORLD;
+            shapes[i] = i % 2 == 0 ? new Circle(x, y, 1 + random.nextDouble() * 20, api)
+                    : new Rectangle(x, y, 1 + random.nextDouble() * 40, 1 + random.nextDouble() * 40, api);
+            grid.insert(shapes[i]);
+        }
+        System.out.printf("indexed %d shapes in %d ms%n", count, (System.nanoTime() - begin) / 1_000_000);
+
+        begin = System.nanoTime();
+        for (BoundedShape shape : shapes) {
+            shape.draw();
+        }
+        System.out.printf("draw everything: %d ms per frame%n", (System.nanoTime() - begin) / 1_000_000);
+
+        // Pan: slide the viewport across the world
+        begin = System.nanoTime();
+        long drawn = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            double x = frame * (WORLD - VIEW_WIDTH) / FRAMES;
+            drawn += grid.drawVisible(x, WORLD / 2, x + VIEW_WIDTH, WORLD / 2 + VIEW_HEIGHT);
+        }
+        System.out.printf("pan: %.3f ms per frame, %d shapes per frame%n",
+                (System.nanoTime() - begin) / 1e6 / FRAMES, drawn / FRAMES);
+
+        // Zoom: grow the viewport around the centre of the world
+        for (double zoom = 1; zoom <= 64; zoom *= 4) {
+            double halfWidth = VIEW_WIDTH * zoom / 2;
+            double halfHeight = VIEW_HEIGHT * zoom / 2;
+            begin = System.nanoTime();
+            int visible = grid.drawVisible(WORLD / 2 - halfWidth, WORLD / 2 - halfHeight, WORLD / 2 + halfWidth, WORLD / 2 + halfHeight);
+            System.out.printf("zoom x%.0f: %.3f ms, %d shapes%n", zoom, (System.nanoTime() - begin) / 1e6, visible);
+        }
+
+        // Interactive edits: move a batch of shapes without rebuilding the index
+        begin = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            grid.move(shapes[random.nextInt(count)], random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+        }
+        System.out.printf("100k moves: %d ms (checksum %.0f)%n", (System.nanoTime() - begin) / 1_000_000, api.checksum);
+    }
+}
+
+// Compares heap usage and full-scene draw time of per-object shapes and the columnar ShapeStore.
+// Run with: java -Xmx4g ShapeStoreBenchmark [shapes] (after compiling this file)
+class ShapeStoreBenchmark {
+    // DrawingAPI that only accumulates the geometry, so the benchmark measures traversal rather than output
+    static class CountingDrawingAPI implements DrawingAPI {
+        double checksum;
+
+        @Override
+        public void drawCircle(double x, double y, double radius) {
+            checksum += x + y + radius;
+        }
+
+        @Override
+        public void drawRectangle(double x, double y, double width, double height) {
+            checksum += x + y + width + height;
+        }
+    }
+
+    public static void main(String[] args) {
+        int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        CountingDrawingAPI api = new CountingDrawingAPI();
+
+        long before = usedHeap();
+        Shape[] objects = new Shape[shapes];
+        for (int i = 0; i < shapes; i++) {
+            objects[i] = i % 2 == 0 ? new Circle(i, i, 1, api) : new Rectangle(i, i, 2, 3, api);
+        }
+        long objectBytes = usedHeap() - before;
+        long objectNanos = time(() -> {
+            for (Shape shape : objects) {
+                shape.draw();
+            }
+        });
+        System.out.printf("objects: %.1f bytes/shape, draw %d ms%n", (double) objectBytes / shapes, objectNanos / 1_000_000);
+        Arrays.fill(objects, null);
+
+        before = usedHeap();
+        ShapeStore store = new ShapeStore(shapes);
+        for (int i = 0; i < shapes; i++) {
+            if (i % 2 == 0) {
+                store.addCircle(i, i, 1, api);
+            } else {
+                store.addRectangle(i, i, 2, 3, api);
+            }
+        }
+        long storeBytes = usedHeap() - before;
+        long storeNanos = time(store::drawAll);
+        System.out.printf("store:   %.1f bytes/shape, draw %d ms (checksum %.0f)%n",
+                (double) storeBytes / shapes, storeNanos / 1_000_000, api.checksum);
+    }
+
+    private static long time(Runnable task) {
+        task.run(); // warm-up pass
+        long begin = System.nanoTime();
+        task.run();
+        return System.nanoTime() - begin;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
     }
 }
 In this example:
@@ -97,5 +1292,9 @@ Shape is the abstraction that can be either a circle or a rectangle.
 DrawingAPI is the interface for the drawing implementation.
 DrawingAPI1 and DrawingAPI2 are concrete implementations of DrawingAPI.
 Circle and Rectangle are refined abstractions that use a specific DrawingAPI.
+RetainedScene records shapes into per-API batches and flushes them through the bulk drawCircles/drawRectangles entry points, writing each API's output once per frame.
+ShapeStore keeps shapes as columns of primitive arrays with a type tag, and hands out Shape views on demand.
+SpatialGrid indexes shape bounds in a uniform grid so that only shapes inside a viewport are drawn, and supports inserting, moving and removing shapes incrementally.
+TiledRenderer renders a ShapeStore in parallel tiles, each with its own DrawingAPI instances, and merges the output back into the serial drawing order. Backends opt in by implementing TileableDrawingAPI; a store using any other backend is drawn serially.
 The client code (BridgePatternExample) demonstrates how different shapes can use different drawing APIs.
 This example illustrates how the Bridge pattern allows you to decouple the abstraction (Shape) from its implementation (DrawingAPI), making it easier to extend and maintain the code.
\ No newline at end of file
@@ -1,16 +1,51 @@
 // public Certainly! The Command design pattern is used to encapsulate a request as an object, thereby allowing for parameterization of clients with different requests, queuing of requests, and logging of the requests. Here's a complex example of the Command pattern in Java:
 
 // Copy
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 // Command interface
 interface Command {
     void execute();
 }
 
+// Command that can reverse its own effect
+interface UndoableCommand extends Command {
+    void undo();
+}
+
+// Command that acts on a single receiver object, so executors can order commands per receiver
+interface ReceiverCommand extends Command {
+    Object getReceiver();
+}
+
+// Command that fully determines its receiver's state, so an earlier one for the same receiver becomes redundant
+interface SupersedingCommand extends ReceiverCommand {
+}
+
 // ConcreteCommand classes
-class LightOnCommand implements Command {
+class LightOnCommand implements UndoableCommand, SupersedingCommand {
     private Light light;
 
     public LightOnCommand(Light light) {
@@ -21,9 +56,19 @@ class LightOnCommand implements Command {
     public void execute() {
         light.turnOn();
     }
+
+    @Override
+    public void undo() {
+        light.turnOff();
+    }
+
+    @Override
+    public Object getReceiver() {
+        return light;
+    }
 }
 
-class LightOffCommand implements Command {
+class LightOffCommand implements UndoableCommand, SupersedingCommand {
     private Light light;
 
     public LightOffCommand(Light light) {
@@ -34,33 +79,626 @@ class LightOffCommand implements Command {
     public void execute() {
         light.turnOff();
     }
+
+    @Override
+    public void undo() {
+        light.turnOn();
+    }
+
+    @Override
+    public Object getReceiver() {
+        return light;
+    }
+}
+
+// Runs a fixed batch of commands as one unit, so the whole batch takes a single history entry.
+// Every command in the batch must be undoable, so undoing the macro always restores the state before it ran.
+class MacroCommand implements UndoableCommand {
+    private final Command[] commands;
+
+    public MacroCommand(Command... commands) {
+        for (Command command : commands) {
+            if (!(command instanceof UndoableCommand)) {
+                throw new IllegalArgumentException("Command cannot be undone: " + command);
+            }
+        }
+        this.commands = commands.clone();
+    }
+
+    public Command[] getCommands() {
+        return commands.clone();
+    }
+
+    @Override
+    public void execute() {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].execute();
+        }
+    }
+
+    // Undoes in reverse order
+    @Override
+    public void undo() {
+        for (int i = commands.length - 1; i >= 0; i--) {
+            ((UndoableCommand) commands[i]).undo();
+        }
+    }
 }
 
 // Receiver class
 class Light {
+    private boolean on;
+
     public void turnOn() {
+        on = true;
         System.out.println("Light is ON");
     }
 
     public void turnOff() {
+        on = false;
         System.out.println("Light is OFF");
     }
+
+    public boolean isOn() {
+        return on;
+    }
+}
+
+// Fixed-capacity ring of commands; once full, pushing overwrites the oldest entry
+class CommandRing {
+    private final Command[] slots;
+    private int start;
+    private int size;
+
+    public CommandRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.slots = new Command[capacity];
+    }
+
+    public void push(Command command) {
+        if (size == slots.length) {
+            slots[start] = command;
+            start = (start + 1) % slots.length;
+        } else {
+            slots[(start + size) % slots.length] = command;
+            size++;
+        }
+    }
+
+    // Removes and returns the newest entry, or null if the ring is empty
+    public Command pop() {
+        if (size == 0) {
+            return null;
+        }
+        size--;
+        int index = (start + size) % slots.length;
+        Command command = slots[index];
+        slots[index] = null;
+        return command;
+    }
+
+    // Returns the entry at the given position, counting from the oldest
+    public Command get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + " out of " + size);
+        }
+        return slots[(start + position) % slots.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, null);
+        start = 0;
+        size = 0;
+    }
 }
 
 // Invoker class
 class RemoteControl {
-    private List<Command> commandHistory = new ArrayList<>();
+    private static final int DEFAULT_HISTORY_CAPACITY = 64;
+
+    private final CommandRing commandHistory;
+    private final CommandRing undoStack;
+    private final CommandRing redoStack;
+    private final CommandJournal journal;
+
+    public RemoteControl() {
+        this(DEFAULT_HISTORY_CAPACITY);
+    }
+
+    // History, undo and redo are each bounded to historyCapacity entries, so memory stays flat over long sessions
+    public RemoteControl(int historyCapacity) {
+        this(historyCapacity, null);
+    }
+
+    // Every executed, undone or redone command is also appended to the journal, if one is given
+    public RemoteControl(int historyCapacity, CommandJournal journal) {
+        this.commandHistory = new CommandRing(historyCapacity);
+        this.undoStack = new CommandRing(historyCapacity);
+        this.redoStack = new CommandRing(historyCapacity);
+        this.journal = journal;
+    }
 
     public void pressButton(Command command) {
         command.execute();
-        commandHistory.add(command);
+        if (journal != null) {
+            journal.append(command);
+        }
+        commandHistory.push(command);
+        if (command instanceof UndoableCommand) {
+            undoStack.push(command);
+        } else {
+            // A command that cannot be undone is a barrier: undoing past it would revert
+            // state it may depend on, so earlier commands are no longer undoable
+            undoStack.clear();
+        }
+        redoStack.clear();
+    }
+
+    // Reverts the most recent undoable command; returns false if there is nothing to undo
+    public boolean undo() {
+        UndoableCommand command = (UndoableCommand) undoStack.pop();
+        if (command == null) {
+            return false;
+        }
+        command.undo();
+        if (journal != null) {
+            journal.appendUndo(command);
+        }
+        redoStack.push(command);
+        return true;
+    }
+
+    // Re-executes the most recently undone command; returns false if there is nothing to redo
+    public boolean redo() {
+        Command command = redoStack.pop();
+        if (command == null) {
+            return false;
+        }
+        command.execute();
+        if (journal != null) {
+            journal.append(command);
+        }
+        undoStack.push(command);
+        return true;
     }
 
     public void showCommandHistory() {
         System.out.println("Command History:");
-        for (Command command : commandHistory) {
-            System.out.println(command.getClass().getSimpleName());
+        for (int i = 0; i < commandHistory.size(); i++) {
+            System.out.println(commandHistory.get(i).getClass().getSimpleName());
+        }
+    }
+}
+
+// Runs commands on a work-stealing pool. Commands for the same receiver run one after another
+// in submission order, while commands for different receivers run concurrently.
+class ConcurrentCommandExecutor implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final ConcurrentHashMap<Object, ReceiverLane> lanes = new ConcurrentHashMap<>();
+
+    public ConcurrentCommandExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentCommandExecutor(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    // Receivers are taken from ReceiverCommand; any other command is ordered only against itself
+    public CompletableFuture<Void> submit(Command command) {
+        Object receiver = command instanceof ReceiverCommand ? ((ReceiverCommand) command).getReceiver() : command;
+        return submit(receiver, command);
+    }
+
+    // The returned future completes when the command has run, or completes exceptionally if it threw.
+    // A failed command does not stop later commands for the same receiver.
+    public CompletableFuture<Void> submit(Object receiver, Command command) {
+        PendingCommand pending = new PendingCommand(command);
+        // Enqueueing and lane retirement both happen inside compute, so they never race for the same receiver
+        lanes.compute(receiver, (key, lane) -> {
+            if (lane == null) {
+                lane = new ReceiverLane(key);
+            }
+            lane.queue.add(pending);
+            if (!lane.scheduled) {
+                lane.scheduled = true;
+                pool.execute(lane);
+            }
+            return lane;
+        });
+        return pending.future;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PendingCommand {
+        final Command command;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingCommand(Command command) {
+            this.command = command;
+        }
+    }
+
+    // Serial queue for one receiver; at most one pool task drains it at a time
+    private final class ReceiverLane implements Runnable {
+        final Object receiver;
+        final ConcurrentLinkedQueue<PendingCommand> queue = new ConcurrentLinkedQueue<>();
+        boolean scheduled; // guarded by the lanes map entry for receiver
+
+        ReceiverLane(Object receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                PendingCommand pending;
+                while ((pending = queue.poll()) != null) {
+                    try {
+                        pending.command.execute();
+                        pending.future.complete(null);
+                    } catch (Throwable e) {
+                        pending.future.completeExceptionally(e);
+                    }
+                }
+                // Retire the lane if nothing arrived meanwhile, so idle receivers do not pin memory
+                boolean[] retired = new boolean[1];
+                lanes.computeIfPresent(receiver, (key, lane) -> {
+                    if (lane == this && queue.isEmpty()) {
+                        scheduled = false;
+                        retired[0] = true;
+                        return null;
+                    }
+                    return lane;
+                });
+                if (retired[0]) {
+                    return;
+                }
+            }
+        }
+    }
+}
+
+// Turns commands into compact binary payloads for the journal and back
+interface CommandCodec {
+    // Upper bound on the bytes encode writes for one command
+    int maxEncodedSize();
+
+    // Throws IllegalArgumentException for commands the codec does not know
+    void encode(Command command, ByteBuffer out);
+
+    Command decode(ByteBuffer in);
+}
+
+// Encodes light commands as a one-byte opcode plus the index of the light in a fixed table.
+// Decoding returns preallocated commands, so replay does not allocate per record.
+class LightCommandCodec implements CommandCodec {
+    private static final byte TURN_ON = 1;
+    private static final byte TURN_OFF = 2;
+
+    private final Map<Light, Integer> indexes = new IdentityHashMap<>();
+    private final Command[] onCommands;
+    private final Command[] offCommands;
+
+    public LightCommandCodec(Light... lights) {
+        onCommands = new Command[lights.length];
+        offCommands = new Command[lights.length];
+        for (int i = 0; i < lights.length; i++) {
+            indexes.put(lights[i], i);
+            onCommands[i] = new LightOnCommand(lights[i]);
+            offCommands[i] = new LightOffCommand(lights[i]);
+        }
+    }
+
+    @Override
+    public int maxEncodedSize() {
+        return 5;
+    }
+
+    @Override
+    public void encode(Command command, ByteBuffer out) {
+        byte opcode;
+        if (command instanceof LightOnCommand) {
+            opcode = TURN_ON;
+        } else if (command instanceof LightOffCommand) {
+            opcode = TURN_OFF;
+        } else {
+            throw new IllegalArgumentException("Unsupported command: " + command.getClass().getSimpleName());
+        }
+        Integer index = indexes.get(((ReceiverCommand) command).getReceiver());
+        if (index == null) {
+            throw new IllegalArgumentException("Light is not registered with this codec");
+        }
+        out.put(opcode).putInt(index);
+    }
+
+    @Override
+    public Command decode(ByteBuffer in) {
+        byte opcode = in.get();
+        int index = in.getInt();
+        switch (opcode) {
+            case TURN_ON: return onCommands[index];
+            case TURN_OFF: return offCommands[index];
+            default: throw new IllegalStateException("Corrupt journal record, opcode " + opcode);
+        }
+    }
+}
+
+// Append-only, memory-mapped log of executed commands.
+// Each record is [u16 length][u8 kind][codec payload]; a zero length marks the end of the log.
+// The file grows in fixed-size mapped regions, and records are forced to disk in groups of groupCommitSize.
+class CommandJournal implements AutoCloseable {
+    private static final int REGION_SIZE = 64 << 20;
+    private static final int END_OF_LOG = 0;
+    private static final int NEXT_REGION = 0xFFFF;
+    private static final byte EXECUTE = 0;
+    private static final byte UNDO = 1;
+
+    private final FileChannel channel;
+    private final CommandCodec codec;
+    private final int groupCommitSize;
+    private final ByteBuffer scratch;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long recordCount;
+    private int uncommitted;
+
+    // Opens or creates the journal and positions it after the last complete record
+    public CommandJournal(Path file, CommandCodec codec, int groupCommitSize) throws IOException {
+        if (groupCommitSize <= 0) {
+            throw new IllegalArgumentException("groupCommitSize must be positive: " + groupCommitSize);
+        }
+        // A record length of 0xFFFF would read back as the next-region marker
+        if (codec.maxEncodedSize() + 1 >= NEXT_REGION) {
+            throw new IllegalArgumentException("Codec records must be shorter than " + NEXT_REGION + " bytes: " + codec.maxEncodedSize());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.codec = codec;
+        this.groupCommitSize = groupCommitSize;
+        this.scratch = ByteBuffer.allocate(1 + codec.maxEncodedSize());
+        long end = scan(false);
+        this.regionStart = end - end % REGION_SIZE;
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+        this.region.position((int) (end - regionStart));
+    }
+
+    // Records a command that was executed; macros are journaled as their individual commands
+    public synchronized void append(Command command) {
+        append(EXECUTE, command);
+    }
+
+    // Records that a command was undone; macros are journaled as their commands undone in reverse order
+    public synchronized void appendUndo(UndoableCommand command) {
+        append(UNDO, command);
+    }
+
+    // Forces every appended record to disk
+    public synchronized void commit() {
+        region.force();
+        uncommitted = 0;
+    }
+
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    // Re-applies every journaled command in order, rebuilding receiver state after a restart. Returns the record count.
+    public synchronized long replay() throws IOException {
+        scan(true);
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        commit();
+        channel.close();
+    }
+
+    private void append(byte kind, Command command) {
+        if (command instanceof MacroCommand) {
+            Command[] commands = ((MacroCommand) command).getCommands();
+            if (kind == UNDO) {
+                for (int i = commands.length - 1; i >= 0; i--) {
+                    append(kind, commands[i]);
+                }
+            } else {
+                for (Command child : commands) {
+                    append(kind, child);
+                }
+            }
+            return;
+        }
+        scratch.clear();
+        scratch.put(kind);
+        codec.encode(command, scratch);
+        scratch.flip();
+        int length = scratch.remaining();
+        // Keep room for the terminating length after the record
+        if (region.remaining() < 2 + length + 2) {
+            region.putShort(region.position(), (short) NEXT_REGION);
+            mapNextRegion();
+        }
+        int position = region.position();
+        region.position(position + 2);
+        region.put(scratch);
+        // Terminate the log after this record before publishing it, so a reused or stale slot is never read as a record
+        region.putShort(position + 2 + length, (short) END_OF_LOG);
+        // The length goes in last, so a record interrupted mid-write still reads as the end of the log
+        region.putShort(position, (short) length);
+        recordCount++;
+        if (++uncommitted >= groupCommitSize) {
+            commit();
+        }
+    }
+
+    private void mapNextRegion() {
+        region.force();
+        regionStart += REGION_SIZE;
+        try {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Walks the log from the start, optionally applying each record, and returns the offset just past the last record
+    private long scan(boolean apply) throws IOException {
+        long fileSize = channel.size();
+        long start = 0;
+        long count = 0;
+        while (start < fileSize) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, fileSize - start));
+            while (buffer.remaining() >= 2) {
+                int position = buffer.position();
+                int length = buffer.getShort() & 0xFFFF;
+                if (length == END_OF_LOG) {
+                    recordCount = count;
+                    return start + position;
+                }
+                if (length == NEXT_REGION) {
+                    break;
+                }
+                if (apply) {
+                    byte kind = buffer.get();
+                    Command command = codec.decode(buffer);
+                    if (kind == UNDO) {
+                        if (command instanceof UndoableCommand) {
+                            ((UndoableCommand) command).undo();
+                        }
+                    } else {
+                        command.execute();
+                    }
+                }
+                buffer.position(position + 2 + length);
+                count++;
+            }
+            start += REGION_SIZE;
+        }
+        recordCount = count;
+        return start;
+    }
+}
+
+// Staged pipeline in front of RemoteControl.pressButton. Commands are buffered for a short window and
+// superseding commands for the same receiver collapse into the last one before the reduced batch runs.
+// Any other command acts as a barrier: nothing is collapsed across it, so ordering is preserved.
+class CoalescingCommandPipeline implements AutoCloseable {
+    private final RemoteControl remoteControl;
+    private final int maxBatch;
+    private final ScheduledExecutorService flusher;
+    private final List<Command> buffer = new ArrayList<>();
+    private final Map<Object, Integer> slotByReceiver = new HashMap<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Flushes every window, or as soon as maxBatch commands are buffered
+    public CoalescingCommandPipeline(RemoteControl remoteControl, long window, TimeUnit unit, int maxBatch) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        }
+        this.remoteControl = remoteControl;
+        this.maxBatch = maxBatch;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "command-pipeline-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::scheduledFlush, window, window, unit);
+    }
+
+    public synchronized void submit(Command command) {
+        submitted.increment();
+        if (command instanceof SupersedingCommand) {
+            Object receiver = ((SupersedingCommand) command).getReceiver();
+            Integer slot = slotByReceiver.get(receiver);
+            if (slot != null) {
+                buffer.set(slot, command);
+                collapsed.increment();
+                return;
+            }
+            slotByReceiver.put(receiver, buffer.size());
+        } else {
+            slotByReceiver.clear();
+        }
+        buffer.add(command);
+        if (buffer.size() >= maxBatch) {
+            flush();
+        }
+    }
+
+    // Runs the reduced batch through the remote control. The batch is taken out of the buffer first, so a command
+    // that throws is never run again by a later flush; the rest of the batch still runs and the first failure is rethrown.
+    public synchronized void flush() {
+        Command[] batch = buffer.toArray(new Command[0]);
+        buffer.clear();
+        slotByReceiver.clear();
+        RuntimeException failure = null;
+        for (Command command : batch) {
+            try {
+                remoteControl.pressButton(command);
+                executed.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
         }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // A task that throws is never run again by the scheduler, so failures are reported and the window keeps flushing
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    // Commands that threw when their batch was flushed
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush();
     }
 }
 
@@ -81,15 +719,182 @@ public class CommandPatternExample {
         remoteControl.pressButton(lightOnCommand);
         remoteControl.pressButton(lightOffCommand);
 
+        // Undoing and redoing the last command
+        remoteControl.undo();
+        remoteControl.redo();
+
+        // Running a batch of commands as a single history entry
+        remoteControl.pressButton(new MacroCommand(lightOnCommand, lightOffCommand, lightOnCommand));
+        remoteControl.undo();
+
         // Showing command history
         remoteControl.showCommandHistory();
+
+        // Executing commands for several lights concurrently, each light keeping its own order
+        try (ConcurrentCommandExecutor executor = new ConcurrentCommandExecutor()) {
+            Light kitchen = new Light();
+            Light hallway = new Light();
+            CompletableFuture.allOf(
+                    executor.submit(new LightOnCommand(kitchen)),
+                    executor.submit(new LightOnCommand(hallway)),
+                    executor.submit(new LightOffCommand(kitchen)),
+                    executor.submit(new LightOffCommand(hallway))).join();
+        }
+
+        // Collapsing an on/off storm against one light into a single command
+        try (CoalescingCommandPipeline pipeline = new CoalescingCommandPipeline(remoteControl, 10, TimeUnit.MILLISECONDS, 128)) {
+            for (int i = 0; i < 5; i++) {
+                pipeline.submit(lightOnCommand);
+                pipeline.submit(lightOffCommand);
+            }
+            pipeline.flush();
+            System.out.println("Submitted " + pipeline.getSubmittedCount() + ", collapsed " + pipeline.getCollapsedCount()
+                    + ", executed " + pipeline.getExecutedCount());
+        }
+    }
+}
+
+// Throughput of the serial pressButton loop versus the concurrent executor over many receivers.
+// Run with: java CommandExecutorBenchmark (after compiling this file)
+class CommandExecutorBenchmark {
+    private static final int RECEIVERS = 4_096;
+    private static final int COMMANDS_PER_RECEIVER = 64;
+
+    // Light that burns a little CPU instead of printing, standing in for real device I/O
+    static class WorkingLight extends Light {
+        long work;
+
+        @Override
+        public void turnOn() {
+            spin();
+        }
+
+        @Override
+        public void turnOff() {
+            spin();
+        }
+
+        private void spin() {
+            long value = work;
+            for (int i = 0; i < 2_000; i++) {
+                value = value * 6364136223846793005L + 1442695040888963407L;
+            }
+            work = value;
+        }
+    }
+
+    public static void main(String[] args) {
+        Command[] commands = new Command[RECEIVERS * COMMANDS_PER_RECEIVER];
+        for (int r = 0; r < RECEIVERS; r++) {
+            Light light = new WorkingLight();
+            for (int c = 0; c < COMMANDS_PER_RECEIVER; c++) {
+                commands[c * RECEIVERS + r] = c % 2 == 0 ? new LightOnCommand(light) : new LightOffCommand(light);
+            }
+        }
+        for (int round = 0; round < 3; round++) {
+            RemoteControl remoteControl = new RemoteControl();
+            long begin = System.nanoTime();
+            for (Command command : commands) {
+                remoteControl.pressButton(command);
+            }
+            long serialNanos = System.nanoTime() - begin;
+
+            long concurrentNanos;
+            try (ConcurrentCommandExecutor executor = new ConcurrentCommandExecutor()) {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[commands.length];
+                begin = System.nanoTime();
+                for (int i = 0; i < commands.length; i++) {
+                    futures[i] = executor.submit(commands[i]);
+                }
+                CompletableFuture.allOf(futures).join();
+                concurrentNanos = System.nanoTime() - begin;
+            }
+            System.out.printf("round %d: serial=%.0f commands/s concurrent=%.0f commands/s%n", round,
+                    commands.length * 1e9 / serialNanos, commands.length * 1e9 / concurrentNanos);
+        }
     }
 }
+// Append throughput and crash-recovery time for a large command journal on a temp file.
+// Run with: java CommandJournalBenchmark [entries] (after compiling this file)
+class CommandJournalBenchmark {
+    private static final int LIGHTS = 64;
+
+    // Light that tracks its state without printing, so the benchmark measures the journal
+    static class QuietLight extends Light {
+        boolean lit;
+
+        @Override
+        public void turnOn() {
+            lit = true;
+        }
+
+        @Override
+        public void turnOff() {
+            lit = false;
+        }
+
+        @Override
+        public boolean isOn() {
+            return lit;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long entries = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        Path file = Files.createTempFile("command-journal", ".log");
+        try {
+            Light[] lights = new Light[LIGHTS];
+            Command[] commands = new Command[LIGHTS * 2];
+            for (int i = 0; i < LIGHTS; i++) {
+                lights[i] = new QuietLight();
+                commands[2 * i] = new LightOnCommand(lights[i]);
+                commands[2 * i + 1] = new LightOffCommand(lights[i]);
+            }
+            Random random = new Random(7);
+            long begin = System.nanoTime();
+            try (CommandJournal journal = new CommandJournal(file, new LightCommandCodec(lights), 4_096)) {
+                RemoteControl remoteControl = new RemoteControl(64, journal);
+                for (long i = 0; i < entries; i++) {
+                    remoteControl.pressButton(commands[random.nextInt(commands.length)]);
+                }
+            }
+            long appendNanos = System.nanoTime() - begin;
+
+            // Recover into a fresh set of lights, as a restarted process would
+            Light[] recovered = new Light[LIGHTS];
+            for (int i = 0; i < LIGHTS; i++) {
+                recovered[i] = new QuietLight();
+            }
+            begin = System.nanoTime();
+            long replayed;
+            try (CommandJournal journal = new CommandJournal(file, new LightCommandCodec(recovered), 4_096)) {
+                replayed = journal.replay();
+            }
+            long recoveryNanos = System.nanoTime() - begin;
+
+            boolean consistent = true;
+            for (int i = 0; i < LIGHTS; i++) {
+                consistent &= lights[i].isOn() == recovered[i].isOn();
+            }
+            System.out.printf("appended %d commands at %.0f commands/s (%d bytes on disk)%n",
+                    entries, entries * 1e9 / appendNanos, Files.size(file));
+            System.out.printf("recovered %d commands in %d ms, state consistent: %b%n",
+                    replayed, recoveryNanos / 1_000_000, consistent);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
+
 // In this example:
 
 // Command is the command interface with the execute method.
 // LightOnCommand and LightOffCommand are concrete command classes implementing the Command interface for turning the light on and off, respectively.
+// UndoableCommand adds undo, and MacroCommand runs a batch of commands as one undoable unit.
+// ReceiverCommand exposes the receiver a command acts on, and ConcurrentCommandExecutor uses it to run commands for different receivers in parallel while keeping each receiver's commands in order.
+// SupersedingCommand marks commands that make earlier ones for the same receiver redundant, and CoalescingCommandPipeline buffers commands for a short window and runs only the last one per receiver.
+// CommandJournal appends every executed command to a memory-mapped log through a CommandCodec, and replays it to rebuild receiver state after a restart.
 // Light is the receiver class that performs the actual operations.
-// RemoteControl is the invoker class that holds and executes commands, and also maintains a command history.
+// RemoteControl is the invoker class that holds and executes commands, and also maintains a bounded command history plus undo and redo stacks backed by a fixed-capacity CommandRing; executing a command that cannot be undone clears both stacks.
 // This example models a remote control that can turn a light on and off. Commands are encapsulated as objects, and the invoker (RemoteControl) uses these commands without knowing the details of the operations. The command history is also maintained, allowing for undo/redo functionality or other use cases. {
     
@@ -1,17 +1,39 @@
 // The Decorator design pattern is used to add new functionality to an object dynamically without altering its structure. Here's a complex example of the Decorator pattern in Java:
 
 // Copy
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
 // Component interface
 interface Coffee {
-    double cost();
     String description();
+
+    // Exact cost in cents; throws ArithmeticException if the total overflows a long.
+    // This is the only pricing hook: implementations override costCents(), and cost() and costAmount() follow from it.
+    long costCents();
+
+    // Cost in dollars as a double, derived from the exact price in cents; do not override it to change the price
+    default double cost() {
+        return costCents() / 100.0;
+    }
+
+    // Exact cost in dollars, for display and other edges of the system
+    default BigDecimal costAmount() {
+        return BigDecimal.valueOf(costCents(), 2);
+    }
 }
 
 // ConcreteComponent class
 class SimpleCoffee implements Coffee {
+    private static final long PRICE_CENTS = 200; // Base cost of a simple coffee
+
     @Override
-    public double cost() {
-        return 2.0; // Base cost of a simple coffee
+    public long costCents() {
+        return PRICE_CENTS;
     }
 
     @Override
@@ -20,17 +42,28 @@ class SimpleCoffee implements Coffee {
     }
 }
 
-// Decorator abstract class
+// Decorator abstract class. The wrapped coffee is final, so a finished chain never changes once built.
 abstract class CoffeeDecorator implements Coffee {
-    protected Coffee decoratedCoffee;
+    protected final Coffee decoratedCoffee;
 
     public CoffeeDecorator(Coffee decoratedCoffee) {
         this.decoratedCoffee = decoratedCoffee;
     }
 
     @Override
-    public double cost() {
-        return decoratedCoffee.cost();
+    public long costCents() {
+        return decoratedCoffee.costCents();
+    }
+
+    // Final so that a decorator can only change the price through costCents(), and every view of the price agrees
+    @Override
+    public final double cost() {
+        return costCents() / 100.0;
+    }
+
+    @Override
+    public final BigDecimal costAmount() {
+        return BigDecimal.valueOf(costCents(), 2);
     }
 
     @Override
@@ -41,13 +74,15 @@ abstract class CoffeeDecorator implements Coffee {
 
 // ConcreteDecorator classes
 class MilkDecorator extends CoffeeDecorator {
+    private static final long PRICE_CENTS = 100; // Adding cost of milk
+
     public MilkDecorator(Coffee decoratedCoffee) {
         super(decoratedCoffee);
     }
 
     @Override
-    public double cost() {
-        return super.cost() + 1.0; // Adding cost of milk
+    public long costCents() {
+        return Math.addExact(super.costCents(), PRICE_CENTS);
     }
 
     @Override
@@ -57,13 +92,15 @@ class MilkDecorator extends CoffeeDecorator {
 }
 
 class SugarDecorator extends CoffeeDecorator {
+    private static final long PRICE_CENTS = 50; // Adding cost of sugar
+
     public SugarDecorator(Coffee decoratedCoffee) {
         super(decoratedCoffee);
     }
 
     @Override
-    public double cost() {
-        return super.cost() + 0.5; // Adding cost of sugar
+    public long costCents() {
+        return Math.addExact(super.costCents(), PRICE_CENTS);
     }
 
     @Override
@@ -73,13 +110,15 @@ class SugarDecorator extends CoffeeDecorator {
 }
 
 class VanillaDecorator extends CoffeeDecorator {
+    private static final long PRICE_CENTS = 150; // Adding cost of vanilla
+
     public VanillaDecorator(Coffee decoratedCoffee) {
         super(decoratedCoffee);
     }
 
     @Override
-    public double cost() {
-        return super.cost() + 1.5; // Adding cost of vanilla
+    public long costCents() {
+        return Math.addExact(super.costCents(), PRICE_CENTS);
     }
 
     @Override
@@ -88,26 +127,336 @@ class VanillaDecorator extends CoffeeDecorator {
     }
 }
 
+// Flattened, immutable form of a decorator chain. Cost and description are computed once when the chain
+// is compiled, so later calls are plain field reads instead of a walk through every decorator.
+// Decorators cannot be rewired after construction, so a chain never changes under its snapshot; a different
+// combination of toppings is a new chain and is compiled separately.
+final class CompiledCoffee implements Coffee {
+    private final long costCents;
+    private final String description;
+
+    private CompiledCoffee(long costCents, String description) {
+        this.costCents = costCents;
+        this.description = description;
+    }
+
+    public static CompiledCoffee compile(Coffee coffee) {
+        if (coffee instanceof CompiledCoffee) {
+            return (CompiledCoffee) coffee;
+        }
+        return new CompiledCoffee(coffee.costCents(), coffee.description());
+    }
+
+    @Override
+    public long costCents() {
+        return costCents;
+    }
+
+    @Override
+    public String description() {
+        return description;
+    }
+}
+
+// Toppings the canonicalizing catalog knows how to apply
+enum Topping {
+    MILK, SUGAR, VANILLA;
+
+    Coffee decorate(Coffee coffee) {
+        switch (this) {
+            case MILK: return new MilkDecorator(coffee);
+            case SUGAR: return new SugarDecorator(coffee);
+            default: return new VanillaDecorator(coffee);
+        }
+    }
+}
+
+// Canonicalizing builder for coffees. Each distinct combination of toppings is built and compiled once and then
+// shared from a bounded concurrent cache, so repeated orders do not allocate a decorator per layer.
+// In order-insensitive mode, toppings are applied in Topping declaration order, so orders listing the same toppings
+// in a different order share one instance (cost is unaffected; the description lists toppings in canonical order).
+// The cache evicts with the CLOCK (second chance) policy once it holds more than capacity entries.
+class CoffeeCatalog {
+    private static final int MAX_ORDERED_TOPPINGS = 29;
+    private static final int MAX_TOPPING_COUNT = 0xFFFF;
+    private static final Topping[] TOPPINGS = Topping.values();
+    private static final int MAX_CAPACITY = 1 << 29;
+    // The front table is indexed by the top bits of a 64-bit hash; beyond 2^24 slots it only costs memory
+    private static final int MAX_FRONT_BITS = 24;
+
+    private final int capacity;
+    private final boolean orderInsensitive;
+    private final ConcurrentHashMap<Long, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> clock = new ConcurrentLinkedQueue<>();
+    // Direct-mapped front table over the cache, so hits need no boxed key; a stale or missing slot just falls through
+    private final CacheEntry[] front;
+    private final int frontShift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CoffeeCatalog(int capacity, boolean orderInsensitive) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        this.orderInsensitive = orderInsensitive;
+        // About four slots per cached entry, up to 2^MAX_FRONT_BITS
+        int frontBits = Math.min(31 - Integer.numberOfLeadingZeros(capacity) + 2, MAX_FRONT_BITS);
+        this.front = new CacheEntry[1 << frontBits];
+        this.frontShift = 64 - frontBits;
+    }
+
+    public Builder order() {
+        return new Builder();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Coffee lookup(long key) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> frontShift);
+        CacheEntry entry = front[slot];
+        if (entry == null || entry.key != key || entry.evicted) {
+            entry = cache.get(key);
+            if (entry == null) {
+                misses.increment();
+                boolean[] created = new boolean[1];
+                entry = cache.computeIfAbsent(key, k -> {
+                    created[0] = true;
+                    return new CacheEntry(key, build(key));
+                });
+                if (created[0]) {
+                    clock.offer(key);
+                    evictIfNeeded();
+                }
+                front[slot] = entry;
+                return entry.coffee;
+            }
+            front[slot] = entry;
+        }
+        hits.increment();
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.coffee;
+    }
+
+    // Rebuilds the decorator chain an order key describes
+    private Coffee build(long key) {
+        Coffee coffee = new SimpleCoffee();
+        if (orderInsensitive) {
+            for (Topping topping : TOPPINGS) {
+                for (long n = (key >>> (16 * topping.ordinal())) & MAX_TOPPING_COUNT; n > 0; n--) {
+                    coffee = topping.decorate(coffee);
+                }
+            }
+        } else {
+            int count = (int) (key >>> 58);
+            for (int i = 0; i < count; i++) {
+                coffee = TOPPINGS[(int) (key >>> (2 * i)) & 3].decorate(coffee);
+            }
+        }
+        return CompiledCoffee.compile(coffee);
+    }
+
+    private void evictIfNeeded() {
+        while (cache.size() > capacity) {
+            Long key = clock.poll();
+            if (key == null) {
+                return;
+            }
+            CacheEntry entry = cache.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.referenced) {
+                entry.referenced = false;
+                clock.offer(key);
+            } else if (cache.remove(key, entry)) {
+                entry.evicted = true;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+        final long key;
+        final Coffee coffee;
+        volatile boolean referenced;
+        volatile boolean evicted;
+
+        CacheEntry(long key, Coffee coffee) {
+            this.key = key;
+            this.coffee = coffee;
+        }
+    }
+
+    // Collects the toppings of one order into a packed key: topping counts in order-insensitive mode,
+    // the topping sequence otherwise. Not thread-safe, use one builder per order.
+    public final class Builder {
+        private long key;
+        private int count;
+
+        public Builder with(Topping topping) {
+            int ordinal = topping.ordinal();
+            if (orderInsensitive) {
+                if (((key >>> (16 * ordinal)) & MAX_TOPPING_COUNT) == MAX_TOPPING_COUNT) {
+                    throw new IllegalStateException("Too many " + topping + " toppings");
+                }
+                key += 1L << (16 * ordinal);
+            } else {
+                if (count == MAX_ORDERED_TOPPINGS) {
+                    throw new IllegalStateException("At most " + MAX_ORDERED_TOPPINGS + " toppings per order");
+                }
+                key |= (long) ordinal << (2 * count);
+            }
+            count++;
+            return this;
+        }
+
+        // Returns the shared, immutable coffee for this combination of toppings
+        public Coffee build() {
+            return lookup(orderInsensitive ? key : key | (long) count << 58);
+        }
+    }
+}
+
 // Client code
 public class DecoratorPatternExample {
     public static void main(String[] args) {
         Coffee simpleCoffee = new SimpleCoffee();
-        System.out.println("Cost: $" + simpleCoffee.cost() + ", Description: " + simpleCoffee.description());
+        System.out.println("Cost: $" + simpleCoffee.costAmount() + ", Description: " + simpleCoffee.description());
 
         Coffee milkCoffee = new MilkDecorator(simpleCoffee);
-        System.out.println("Cost: $" + milkCoffee.cost() + ", Description: " + milkCoffee.description());
+        System.out.println("Cost: $" + milkCoffee.costAmount() + ", Description: " + milkCoffee.description());
 
         Coffee sugarMilkCoffee = new SugarDecorator(milkCoffee);
-        System.out.println("Cost: $" + sugarMilkCoffee.cost() + ", Description: " + sugarMilkCoffee.description());
+        System.out.println("Cost: $" + sugarMilkCoffee.costAmount() + ", Description: " + sugarMilkCoffee.description());
 
         Coffee vanillaSugarMilkCoffee = new VanillaDecorator(sugarMilkCoffee);
-        System.out.println("Cost: $" + vanillaSugarMilkCoffee.cost() + ", Description: " + vanillaSugarMilkCoffee.description());
+        System.out.println("Cost: $" + vanillaSugarMilkCoffee.costAmount() + ", Description: " + vanillaSugarMilkCoffee.description());
+
+        // Compiling the chain once makes repeated pricing a field read
+        Coffee compiledCoffee = CompiledCoffee.compile(vanillaSugarMilkCoffee);
+        System.out.println("Cost: $" + compiledCoffee.costAmount() + ", Description: " + compiledCoffee.description());
+
+        // The catalog shares one instance per combination of toppings, whatever order they were listed in
+        CoffeeCatalog catalog = new CoffeeCatalog(64, true);
+        Coffee first = catalog.order().with(Topping.VANILLA).with(Topping.MILK).build();
+        Coffee second = catalog.order().with(Topping.MILK).with(Topping.VANILLA).build();
+        System.out.println("Cost: $" + first.costAmount() + ", Description: " + first.description() + ", shared: " + (first == second));
     }
 }
+// Prices a large batch of orders with the double API and the exact cents API and compares speed and totals.
+// Run with: java CoffeePricingBenchmark [orders] (after compiling this file)
+class CoffeePricingBenchmark {
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Coffee[] menu = {
+            new SimpleCoffee(),
+            new MilkDecorator(new SimpleCoffee()),
+            new SugarDecorator(new MilkDecorator(new SimpleCoffee())),
+            new VanillaDecorator(new SugarDecorator(new MilkDecorator(new SimpleCoffee()))),
+            new SugarDecorator(new SugarDecorator(new VanillaDecorator(new SimpleCoffee())))
+        };
+        Random random = new Random(13);
+        Coffee[] batch = new Coffee[orders];
+        for (int i = 0; i < orders; i++) {
+            batch[i] = menu[random.nextInt(menu.length)];
+        }
+        // Apply a 10% discount per order, which is where binary fractions start to drift
+        for (int round = 0; round < 3; round++) {
+            long begin = System.nanoTime();
+            double doubleTotal = 0;
+            for (Coffee coffee : batch) {
+                doubleTotal += coffee.cost() * 0.9;
+            }
+            long doubleNanos = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            long centsTotal = 0;
+            for (Coffee coffee : batch) {
+                long cents = coffee.costCents();
+                centsTotal = Math.addExact(centsTotal, cents - (cents + 5) / 10); // discount rounded half up to the cent
+            }
+            long centsNanos = System.nanoTime() - begin;
+
+            System.out.printf("round %d: double %d ms total %s, cents %d ms total %s%n", round,
+                    doubleNanos / 1_000_000, new BigDecimal(doubleTotal).toPlainString(),
+                    centsNanos / 1_000_000, BigDecimal.valueOf(centsTotal, 2).toPlainString());
+        }
+    }
+}
+// Builds a large number of orders from scratch and through the catalog, comparing time and bytes allocated.
+// Run with: java CoffeeCatalogBenchmark [orders] (after compiling this file)
+class CoffeeCatalogBenchmark {
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Topping[] toppings = Topping.values();
+        CoffeeCatalog catalog = new CoffeeCatalog(256, true);
+        for (int round = 0; round < 3; round++) {
+            Random random = new Random(17);
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long begin = System.nanoTime();
+            long total = 0;
+            for (int i = 0; i < orders; i++) {
+                Coffee coffee = new SimpleCoffee();
+                for (int t = random.nextInt(4); t > 0; t--) {
+                    coffee = toppings[random.nextInt(toppings.length)].decorate(coffee);
+                }
+                total += coffee.costCents();
+            }
+            long rebuiltNanos = System.nanoTime() - begin;
+            long rebuiltBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+
+            random = new Random(17);
+            bytes = threads.getCurrentThreadAllocatedBytes();
+            begin = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                CoffeeCatalog.Builder builder = catalog.order();
+                for (int t = random.nextInt(4); t > 0; t--) {
+                    builder.with(toppings[random.nextInt(toppings.length)]);
+                }
+                total -= builder.build().costCents();
+            }
+            long catalogNanos = System.nanoTime() - begin;
+            long catalogBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+
+            System.out.printf("round %d: rebuilt %d ms %.1f bytes/order, catalog %d ms %.1f bytes/order, hit rate %.4f, evictions %d (check %d)%n",
+                    round, rebuiltNanos / 1_000_000, (double) rebuiltBytes / orders, catalogNanos / 1_000_000,
+                    (double) catalogBytes / orders, catalog.getHitRate(), catalog.getEvictionCount(), total);
+        }
+    }
+}
+
 // In this example:
 
 // The Coffee interface defines the component that we want to decorate.
 // SimpleCoffee is a concrete component that implements the Coffee interface.
 // CoffeeDecorator is an abstract class that implements the Coffee interface and holds a reference to a Coffee object.
 // MilkDecorator, SugarDecorator, and VanillaDecorator are concrete decorator classes that extend CoffeeDecorator and add specific functionality (cost and description) to the decorated coffee.
+// Each price is kept once, in cents: costCents() prices a coffee exactly with overflow checks, while cost() and costAmount() derive double and BigDecimal views from it. CoffeeDecorator makes both views final, so a decorator changes a price only through costCents().
+// CompiledCoffee flattens a finished decorator chain into one immutable object with a precomputed cost and description.
+// CoffeeCatalog canonicalizes topping combinations and hands out shared compiled coffees from a bounded cache with hit, miss and eviction counters.
 // The client code demonstrates how different decorators can be combined to create a variety of coffee options. The decorators add additional behavior (cost and description) to the base SimpleCoffee object dynamically.
\ No newline at end of file
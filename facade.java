@@ -3,50 +3,470 @@
 // Let's consider a multimedia subsystem that consists of various components like AudioPlayer, VideoPlayer, and ImageLoader. The Facade class named MultimediaFacade will provide a simplified interface to these components.
 
 // Copy
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 // Complex subsystems
 class AudioPlayer {
     public void playAudio(String fileName) {
-        System.out.println("Playing audio: " + fileName);
+        playAudio(openAudio(fileName));
+    }
+
+    public MediaContent openAudio(String fileName) {
+        return MediaContent.read(fileName, MediaType.AUDIO);
+    }
+
+    public void playAudio(MediaContent content) {
+        System.out.println("Playing audio: " + content.getFileName());
     }
 }
 
 class VideoPlayer {
+    private static final int CHUNK_BYTES = 256 * 1024;
+    private static final int MAX_IDLE_CHUNKS = 16;
+    private static final long TRANSFER_CHUNK_BYTES = 8L << 20;
+    // Off-heap chunk buffers shared by all playback threads. A stream borrows one for its duration, and at most
+    // MAX_IDLE_CHUNKS are kept between streams, so idle threads never pin buffers of their own.
+    private static final ConcurrentLinkedQueue<ByteBuffer> IDLE_CHUNKS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger IDLE_CHUNK_COUNT = new AtomicInteger();
+
+    // Streams the file through a fixed-size buffer so videos of any length play without being loaded in full
     public void playVideo(String fileName) {
         System.out.println("Playing video: " + fileName);
+        Path path = Paths.get(fileName);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        ByteBuffer chunk = borrowChunk();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(chunk) != -1) {
+                chunk.flip();
+                renderChunk(chunk);
+                chunk.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            returnChunk(chunk);
+        }
+    }
+
+    private static ByteBuffer borrowChunk() {
+        ByteBuffer chunk = IDLE_CHUNKS.poll();
+        if (chunk == null) {
+            return ByteBuffer.allocateDirect(CHUNK_BYTES);
+        }
+        IDLE_CHUNK_COUNT.decrementAndGet();
+        chunk.clear();
+        return chunk;
+    }
+
+    // Buffers beyond the idle limit are dropped and their memory is released when they are collected
+    private static void returnChunk(ByteBuffer chunk) {
+        if (IDLE_CHUNK_COUNT.incrementAndGet() <= MAX_IDLE_CHUNKS) {
+            IDLE_CHUNKS.offer(chunk);
+        } else {
+            IDLE_CHUNK_COUNT.decrementAndGet();
+        }
+    }
+
+    // Sends the file to the target with FileChannel.transferTo, which lets the OS copy without passing through the heap
+    public long streamVideo(String fileName, WritableByteChannel target) {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, Math.min(size - position, TRANSFER_CHUNK_BYTES), target);
+            }
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Decoder hook called with each streamed chunk; the example player just consumes it
+    protected void renderChunk(ByteBuffer chunk) {
+        chunk.position(chunk.limit());
+    }
+
+    public MediaContent openVideo(String fileName) {
+        return MediaContent.read(fileName, MediaType.VIDEO);
+    }
+
+    public void playVideo(MediaContent content) {
+        System.out.println("Playing video: " + content.getFileName());
     }
 }
 
 class ImageLoader {
     public void loadImage(String fileName) {
-        System.out.println("Loading image: " + fileName);
+        loadImage(openImage(fileName));
+    }
+
+    public MediaContent openImage(String fileName) {
+        return MediaContent.read(fileName, MediaType.IMAGE);
+    }
+
+    public void loadImage(MediaContent content) {
+        System.out.println("Loading image: " + content.getFileName());
+    }
+}
+
+// Loaded media file, backed by a read-only memory mapping rather than a copy on the heap.
+// Names that do not exist on disk load as empty content, so the example runs anywhere.
+class MediaContent {
+    private final String fileName;
+    private final MediaType type;
+    private final ByteBuffer data;
+
+    public MediaContent(String fileName, MediaType type, ByteBuffer data) {
+        this.fileName = fileName;
+        this.type = type;
+        this.data = data;
+    }
+
+    static MediaContent read(String fileName, MediaType type) {
+        Path path = Paths.get(fileName);
+        if (!Files.isRegularFile(path)) {
+            return new MediaContent(fileName, type, ByteBuffer.allocate(0));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File too large to map, stream it instead: " + fileName);
+            }
+            // The mapping stays valid after the channel is closed
+            return new MediaContent(fileName, type, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public MediaType getType() {
+        return type;
+    }
+
+    // Read-only view of the content, positioned at its start
+    public ByteBuffer getData() {
+        return data.asReadOnlyBuffer();
+    }
+
+    public long size() {
+        return data.limit();
+    }
+}
+
+// Byte-budgeted LRU cache of loaded media, keyed by file name and media type.
+// Loads are single-flight: concurrent misses for the same file wait for one load instead of starting their own.
+// Content larger than the whole budget is returned but not cached, and neither is empty content, which is also what
+// a missing file loads as, so a later request sees the file once it appears. Each entry is charged a fixed
+// overhead on top of its bytes, so many tiny files cannot fill memory while staying inside the byte budget.
+class MediaCache {
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<MediaKey, MediaContent> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<MediaKey, CompletableFuture<MediaContent>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long cachedBytes;
+
+    public MediaCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public MediaContent get(String fileName, MediaType type, Function<String, MediaContent> loader) {
+        MediaKey key = new MediaKey(fileName, type);
+        MediaContent content = lookup(key);
+        if (content != null) {
+            hits.increment();
+            return content;
+        }
+        misses.increment();
+        CompletableFuture<MediaContent> load = new CompletableFuture<>();
+        CompletableFuture<MediaContent> pending = loading.putIfAbsent(key, load);
+        if (pending != null) {
+            return pending.join();
+        }
+        try {
+            // Another thread may have finished loading between the lookup and claiming the load
+            content = lookup(key);
+            if (content == null) {
+                loads.increment();
+                content = loader.apply(fileName);
+                store(key, content);
+            }
+            load.complete(content);
+            return content;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Misses that actually went to a subsystem; the rest waited on a load already in flight
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // Bytes charged against the budget, including the per-entry overhead
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized MediaContent lookup(MediaKey key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(MediaKey key, MediaContent content) {
+        if (content.size() == 0 || charge(content) > maxBytes) {
+            return;
+        }
+        MediaContent previous = entries.put(key, content);
+        if (previous != null) {
+            cachedBytes -= charge(previous);
+        }
+        cachedBytes += charge(content);
+        Iterator<MediaContent> eldest = entries.values().iterator();
+        while (cachedBytes > maxBytes) {
+            cachedBytes -= charge(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long charge(MediaContent content) {
+        return content.size() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static final class MediaKey {
+        private final String fileName;
+        private final MediaType type;
+
+        MediaKey(String fileName, MediaType type) {
+            this.fileName = fileName;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof MediaKey)) {
+                return false;
+            }
+            MediaKey key = (MediaKey) other;
+            return fileName.equals(key.fileName) && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fileName.hashCode() + type.hashCode();
+        }
+    }
+}
+
+// Plays one media type; registered with MultimediaFacade.register
+interface MediaHandler {
+    void play(String fileName);
+
+    // Loads the media ahead of playback; handlers for streamed types can leave this as a no-op
+    default void prefetch(String fileName) {
+    }
+}
+
+// Value created on first get, at most once even when several threads ask at the same time
+final class Lazy<T> {
+    private Supplier<T> supplier;
+    private volatile T value;
+
+    Lazy(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    value = result;
+                    supplier = null;
+                }
+            }
+        }
+        return result;
     }
 }
 
 // Facade class providing a simplified interface
 class MultimediaFacade {
-    private AudioPlayer audioPlayer;
-    private VideoPlayer videoPlayer;
-    private ImageLoader imageLoader;
+    private final Lazy<AudioPlayer> audioPlayer;
+    private final Lazy<VideoPlayer> videoPlayer;
+    private final Lazy<ImageLoader> imageLoader;
+    private final Executor executor;
+    private final MediaCache cache;
+    // Indexed by MediaType.ordinal(); replaced as a whole on registration so dispatch reads it without locking
+    private volatile MediaHandler[] handlers = new MediaHandler[MediaType.values().length];
+
+    private static final long DEFAULT_CACHE_BYTES = 64L << 20;
 
+    // Subsystems are created on first use, so a process that only shows images never builds the players
     public MultimediaFacade() {
-        this.audioPlayer = new AudioPlayer();
-        this.videoPlayer = new VideoPlayer();
-        this.imageLoader = new ImageLoader();
+        this(AudioPlayer::new, VideoPlayer::new, ImageLoader::new, AsyncExecutorHolder.EXECUTOR, new MediaCache(DEFAULT_CACHE_BYTES));
+    }
+
+    // Asynchronous requests run on the given executor
+    public MultimediaFacade(AudioPlayer audioPlayer, VideoPlayer videoPlayer, ImageLoader imageLoader, Executor executor) {
+        this(audioPlayer, videoPlayer, imageLoader, executor, new MediaCache(DEFAULT_CACHE_BYTES));
+    }
+
+    // Loaded media is kept in the given cache between requests
+    public MultimediaFacade(AudioPlayer audioPlayer, VideoPlayer videoPlayer, ImageLoader imageLoader, Executor executor, MediaCache cache) {
+        this(() -> audioPlayer, () -> videoPlayer, () -> imageLoader, executor, cache);
+    }
+
+    // Each subsystem is built by its supplier the first time a request needs it
+    public MultimediaFacade(Supplier<AudioPlayer> audioPlayer, Supplier<VideoPlayer> videoPlayer, Supplier<ImageLoader> imageLoader,
+            Executor executor, MediaCache cache) {
+        this.audioPlayer = new Lazy<>(audioPlayer);
+        this.videoPlayer = new Lazy<>(videoPlayer);
+        this.imageLoader = new Lazy<>(imageLoader);
+        this.executor = executor;
+        this.cache = cache;
+        register(MediaType.AUDIO, new CachedMediaHandler(MediaType.AUDIO,
+                fileName -> this.audioPlayer.get().openAudio(fileName), content -> this.audioPlayer.get().playAudio(content)));
+        // Video is streamed on playback rather than cached, so it has nothing to prefetch
+        register(MediaType.VIDEO, fileName -> this.videoPlayer.get().playVideo(fileName));
+        register(MediaType.IMAGE, new CachedMediaHandler(MediaType.IMAGE,
+                fileName -> this.imageLoader.get().openImage(fileName), content -> this.imageLoader.get().loadImage(content)));
+    }
+
+    // Routes the type to the given handler, replacing any handler registered for it before
+    public synchronized void register(MediaType type, MediaHandler handler) {
+        MediaHandler[] updated = handlers.clone();
+        updated[type.ordinal()] = handler;
+        handlers = updated;
+    }
+
+    // Exposes hit, miss, load and eviction counters for sizing the cache
+    public MediaCache getCache() {
+        return cache;
+    }
+
+    // Shared, fixed-size pool of daemon threads for the default constructor, created on first use.
+    // Bounded so a burst of asynchronous requests queues up instead of starting a platform thread per request.
+    private static final class AsyncExecutorHolder {
+        static final int THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "multimedia-facade");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Plays the media without blocking the caller; the future completes when the subsystem is done
+    public CompletableFuture<Void> playMediaAsync(String fileName, MediaType type) {
+        return CompletableFuture.runAsync(() -> playMedia(fileName, type), executor);
+    }
+
+    // Schedules every request at once and completes when all of them have finished
+    public CompletableFuture<Void> playAll(List<MediaRequest> requests) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests.size()];
+        for (int i = 0; i < futures.length; i++) {
+            MediaRequest request = requests.get(i);
+            futures[i] = playMediaAsync(request.getFileName(), request.getType());
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    // Hint that the media will be played soon; the type's handler loads it in the background
+    public CompletableFuture<Void> prefetch(String fileName, MediaType type) {
+        MediaHandler handler = handlers[type.ordinal()];
+        if (handler == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> handler.prefetch(fileName), executor);
     }
 
     public void playMedia(String fileName, MediaType type) {
-        switch (type) {
-            case AUDIO:
-                audioPlayer.playAudio(fileName);
-                break;
-            case VIDEO:
-                videoPlayer.playVideo(fileName);
-                break;
-            case IMAGE:
-                imageLoader.loadImage(fileName);
-                break;
-            default:
-                System.out.println("Unsupported media type");
+        MediaHandler handler = handlers[type.ordinal()];
+        if (handler == null) {
+            System.out.println("Unsupported media type");
+            return;
+        }
+        handler.play(fileName);
+    }
+
+    // Handler that plays media through the cache, loading it with its subsystem on a miss
+    private final class CachedMediaHandler implements MediaHandler {
+        private final MediaType type;
+        private final Function<String, MediaContent> opener;
+        private final Consumer<MediaContent> player;
+
+        CachedMediaHandler(MediaType type, Function<String, MediaContent> opener, Consumer<MediaContent> player) {
+            this.type = type;
+            this.opener = opener;
+            this.player = player;
+        }
+
+        @Override
+        public void play(String fileName) {
+            player.accept(cache.get(fileName, type, opener));
+        }
+
+        @Override
+        public void prefetch(String fileName) {
+            cache.get(fileName, type, opener);
         }
     }
 }
@@ -56,6 +476,25 @@ enum MediaType {
     AUDIO, VIDEO, IMAGE
 }
 
+// One entry of a batch passed to MultimediaFacade.playAll
+class MediaRequest {
+    private final String fileName;
+    private final MediaType type;
+
+    public MediaRequest(String fileName, MediaType type) {
+        this.fileName = fileName;
+        this.type = type;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public MediaType getType() {
+        return type;
+    }
+}
+
 // Client code
 public class FacadePatternExample {
     public static void main(String[] args) {
@@ -69,11 +508,313 @@ public class FacadePatternExample {
 
         // Loading image using the facade
         multimediaFacade.playMedia("picture.jpg", MediaType.IMAGE);
+
+        // Warming an image, then playing a batch asynchronously
+        multimediaFacade.prefetch("cover.jpg", MediaType.IMAGE).join();
+        multimediaFacade.playAll(Arrays.asList(
+                new MediaRequest("intro.mp3", MediaType.AUDIO),
+                new MediaRequest("trailer.mp4", MediaType.VIDEO),
+                new MediaRequest("cover.jpg", MediaType.IMAGE))).join();
+
+        // Playing the same file again is served from the cache; names that do not exist on disk are never cached
+        String jingle = writeSampleFile("jingle", ".mp3");
+        multimediaFacade.playMedia(jingle, MediaType.AUDIO);
+        multimediaFacade.playMedia(jingle, MediaType.AUDIO);
+        MediaCache cache = multimediaFacade.getCache();
+        System.out.println("Cache hits: " + cache.getHitCount() + ", misses: " + cache.getMissCount()
+                + ", evictions: " + cache.getEvictionCount());
+
+        // Routing a media type to a custom handler
+        multimediaFacade.register(MediaType.IMAGE, fileName -> System.out.println("Showing thumbnail: " + fileName));
+        multimediaFacade.playMedia("picture.jpg", MediaType.IMAGE);
+    }
+
+    // Writes a small temporary file, deleted when the JVM exits, and returns its name
+    private static String writeSampleFile(String prefix, String suffix) {
+        try {
+            Path file = Files.createTempFile(prefix, suffix);
+            file.toFile().deleteOnExit();
+            Files.write(file, new byte[1024]);
+            return file.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+// Throughput and tail latency of 10k concurrent requests against stub subsystems that block for a millisecond.
+// Run with: java FacadeAsyncBenchmark [requests] (after compiling this file)
+class FacadeAsyncBenchmark {
+    static class StubAudioPlayer extends AudioPlayer {
+        @Override
+        public void playAudio(MediaContent content) {
+            pause();
+        }
+    }
+
+    static class StubVideoPlayer extends VideoPlayer {
+        @Override
+        public void playVideo(String fileName) {
+            pause();
+        }
+    }
+
+    static class StubImageLoader extends ImageLoader {
+        @Override
+        public void loadImage(MediaContent content) {
+            pause();
+        }
+    }
+
+    static void pause() {
+        pause(1);
+    }
+
+    static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        MediaType[] types = MediaType.values();
+        for (int poolSize : new int[] {64, 512, 4_096}) {
+            ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+            MultimediaFacade facade = new MultimediaFacade(new StubAudioPlayer(), new StubVideoPlayer(), new StubImageLoader(), executor);
+            long[] latencies = new long[requests];
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+            long begin = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                futures[i] = facade.playMediaAsync("file-" + i, types[i % types.length])
+                        .thenRun(() -> latencies[index] = System.nanoTime() - submitted);
+            }
+            CompletableFuture.allOf(futures).join();
+            long elapsed = System.nanoTime() - begin;
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            Arrays.sort(latencies);
+            System.out.printf("threads=%d: %.0f requests/s, p50=%.1f ms p99=%.1f ms p99.9=%.1f ms%n", poolSize,
+                    requests * 1e9 / elapsed, latencies[requests / 2] / 1e6,
+                    latencies[(int) (requests * 0.99)] / 1e6, latencies[(int) (requests * 0.999)] / 1e6);
+        }
+    }
+}
+
+// Reads and copies a temp file through InputStream and through FileChannel, comparing throughput and heap allocated.
+// Run with: java MediaLoadBenchmark [megabytes] (after compiling this file)
+class MediaLoadBenchmark {
+    static final int BUFFER_BYTES = 256 * 1024;
+
+    static class ChecksumVideoPlayer extends VideoPlayer {
+        long checksum;
+
+        @Override
+        protected void renderChunk(ByteBuffer chunk) {
+            checksum += checksum(chunk);
+        }
+    }
+
+    static long checksum(ByteBuffer data) {
+        long checksum = 0;
+        while (data.remaining() >= Long.BYTES) {
+            checksum += data.getLong();
+        }
+        while (data.hasRemaining()) {
+            checksum += data.get();
+        }
+        return checksum;
+    }
+
+    static long readAllBytes(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return checksum(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    static long readChunked(Path file) throws IOException {
+        long checksum = 0;
+        byte[] buffer = new byte[BUFFER_BYTES];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n; (n = in.readNBytes(buffer, 0, buffer.length)) > 0; ) {
+                checksum += checksum(ByteBuffer.wrap(buffer, 0, n));
+            }
+        }
+        return checksum;
+    }
+
+    static long readMapped(Path file) {
+        return checksum(MediaContent.read(file.toString(), MediaType.IMAGE).getData());
+    }
+
+    static long readStreamed(Path file) {
+        ChecksumVideoPlayer player = new ChecksumVideoPlayer();
+        player.playVideo(file.toString());
+        return player.checksum;
+    }
+
+    static long copyStream(Path file, Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(file); OutputStream out = Files.newOutputStream(target)) {
+            return in.transferTo(out);
+        }
+    }
+
+    static long copyTransferTo(Path file, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return new VideoPlayer().streamVideo(file.toString(), out);
+        }
+    }
+
+    interface Run {
+        long run() throws IOException;
+    }
+
+    static void measure(String name, long fileBytes, Run run) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        long check = 0;
+        for (int i = 0; i < 5; i++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long begin = System.nanoTime();
+            check += run.run();
+            best = Math.min(best, System.nanoTime() - begin);
+            bytes = threads.getCurrentThreadAllocatedBytes() - allocated;
+        }
+        System.out.printf("%-16s %7.0f MB/s, %,13d bytes allocated (check %d)%n", name, fileBytes * 1e3 / best, bytes, check);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        Path file = Files.createTempFile("media", ".bin");
+        Path target = Files.createTempFile("media-copy", ".bin");
+        try {
+            byte[] block = new byte[1 << 20];
+            new java.util.Random(17).nextBytes(block);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (int i = 0; i < megabytes; i++) {
+                    out.write(block);
+                }
+            }
+            long fileBytes = (long) megabytes << 20;
+            measure("readAllBytes", fileBytes, () -> readAllBytes(file));
+            measure("InputStream", fileBytes, () -> readChunked(file));
+            measure("mapped", fileBytes, () -> readMapped(file));
+            measure("streamed", fileBytes, () -> readStreamed(file));
+            measure("copy stream", fileBytes, () -> copyStream(file, target));
+            measure("copy transferTo", fileBytes, () -> copyTransferTo(file, target));
+        } finally {
+            Files.delete(file);
+            Files.delete(target);
+        }
+    }
+}
+
+// Compares facade construction with eager and lazy subsystems, and handler table dispatch with a switch.
+// Run with: java FacadeDispatchBenchmark [calls] (after compiling this file)
+class FacadeDispatchBenchmark {
+    // Subsystems whose construction costs a few milliseconds, like opening a device or loading a codec
+    static class SlowAudioPlayer extends AudioPlayer {
+        SlowAudioPlayer() {
+            FacadeAsyncBenchmark.pause(5);
+        }
+    }
+
+    static class SlowVideoPlayer extends VideoPlayer {
+        SlowVideoPlayer() {
+            FacadeAsyncBenchmark.pause(5);
+        }
+    }
+
+    static class SlowImageLoader extends ImageLoader {
+        SlowImageLoader() {
+            FacadeAsyncBenchmark.pause(5);
+        }
+    }
+
+    static class CountingHandler implements MediaHandler {
+        long played;
+
+        @Override
+        public void play(String fileName) {
+            played += fileName.length();
+        }
+    }
+
+    static void playWithSwitch(CountingHandler audio, CountingHandler video, CountingHandler image, String fileName, MediaType type) {
+        switch (type) {
+            case AUDIO:
+                audio.play(fileName);
+                break;
+            case VIDEO:
+                video.play(fileName);
+                break;
+            case IMAGE:
+                image.play(fileName);
+                break;
+            default:
+                System.out.println("Unsupported media type");
+        }
+    }
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        Executor direct = Runnable::run;
+        // Loads the facade's own classes so the timings below only see subsystem construction
+        new MultimediaFacade(new AudioPlayer(), new VideoPlayer(), new ImageLoader(), direct);
+
+        long begin = System.nanoTime();
+        new MultimediaFacade(new SlowAudioPlayer(), new SlowVideoPlayer(), new SlowImageLoader(), direct);
+        long eagerNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        MultimediaFacade lazy = new MultimediaFacade(SlowAudioPlayer::new, SlowVideoPlayer::new, SlowImageLoader::new, direct,
+                new MediaCache(1 << 20));
+        long lazyNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        lazy.playMedia("picture.jpg", MediaType.IMAGE);
+        long firstImageNanos = System.nanoTime() - begin;
+        System.out.printf("cold start: eager %.2f ms, lazy %.2f ms, lazy + first image %.2f ms%n",
+                eagerNanos / 1e6, lazyNanos / 1e6, (lazyNanos + firstImageNanos) / 1e6);
+
+        CountingHandler audio = new CountingHandler();
+        CountingHandler video = new CountingHandler();
+        CountingHandler image = new CountingHandler();
+        MultimediaFacade facade = new MultimediaFacade(AudioPlayer::new, VideoPlayer::new, ImageLoader::new, direct, new MediaCache(0));
+        facade.register(MediaType.AUDIO, audio);
+        facade.register(MediaType.VIDEO, video);
+        facade.register(MediaType.IMAGE, image);
+        MediaType[] types = new MediaType[1024];
+        Random random = new Random(17);
+        for (int i = 0; i < types.length; i++) {
+            types[i] = MediaType.values()[random.nextInt(MediaType.values().length)];
+        }
+        for (int round = 0; round < 3; round++) {
+            begin = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                facade.playMedia("clip", types[i & 1023]);
+            }
+            long tableNanos = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                playWithSwitch(audio, video, image, "clip", types[i & 1023]);
+            }
+            long switchNanos = System.nanoTime() - begin;
+            System.out.printf("round %d: table %.2f ns/call, switch %.2f ns/call (check %d)%n", round,
+                    (double) tableNanos / calls, (double) switchNanos / calls, audio.played + video.played + image.played);
+        }
     }
 }
 In this example:
 
 AudioPlayer, VideoPlayer, and ImageLoader are the complex subsystems representing audio playback, video playback, and image loading, respectively.
 MultimediaFacade is the Facade class that provides a simplified interface to these subsystems.
-The playMedia method in the MultimediaFacade class handles the complexity of choosing the appropriate subsystem based on the media type.
+MediaContent maps files read-only instead of copying them onto the heap, and VideoPlayer streams video through a small reused buffer or FileChannel.transferTo.
+MediaCache keeps loaded media between requests within a byte budget, evicting least recently used files and loading each file only once under concurrent misses. Missing and empty files are not cached.
+playMediaAsync, playAll and prefetch offer a non-blocking API on top of playMedia, backed by an executor.
+The playMedia method in the MultimediaFacade class handles the complexity of choosing the appropriate subsystem based on the media type, looking up the MediaHandler registered for it in a table indexed by the type.
+Subsystems are created lazily on first use, so the facade only pays for the players a process actually needs.
 The client code can use the MultimediaFacade to play audio, video, and load images without worrying about the intricacies of each subsystem. The Facade pattern helps to simplify the usage of complex subsystems by providing a higher-level, unified interface.
\ No newline at end of file
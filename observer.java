@@ -2,7 +2,21 @@
 
 // Copy
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 // Subject interface that defines methods for adding, removing, and notifying observers
 interface Subject {
@@ -11,11 +25,17 @@ interface Subject {
     void notifyObservers();
 }
 
+// Subject that exposes its current state, so observers can read it without knowing the concrete subject class
+interface StatefulSubject extends Subject {
+    int getState();
+}
+
 // Concrete subject class that implements the Subject interface
-class ConcreteSubject implements Subject {
+class ConcreteSubject implements StatefulSubject {
     private int state;
     private List<Observer> observers = new ArrayList<>();
 
+    @Override
     public int getState() {
         return state;
     }
@@ -43,13 +63,698 @@ class ConcreteSubject implements Subject {
     }
 }
 
+// Thread-safe subject that keeps an immutable observer array behind an atomic reference.
+// Notification reads one snapshot without locks or iterators; registration swaps in a new array with CAS.
+class CopyOnWriteSubject implements StatefulSubject {
+    private static final Observer[] NO_OBSERVERS = new Observer[0];
+
+    private volatile int state;
+    private final AtomicReference<Observer[]> observers = new AtomicReference<>(NO_OBSERVERS);
+
+    @Override
+    public int getState() {
+        return state;
+    }
+
+    public void setState(int state) {
+        this.state = state;
+        notifyObservers();
+    }
+
+    @Override
+    public void addObserver(Observer observer) {
+        Observer[] current;
+        Observer[] updated;
+        do {
+            current = observers.get();
+            updated = new Observer[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = observer;
+        } while (!observers.compareAndSet(current, updated));
+    }
+
+    @Override
+    public void removeObserver(Observer observer) {
+        Observer[] current;
+        Observer[] updated;
+        do {
+            current = observers.get();
+            int index = indexOf(current, observer);
+            if (index < 0) {
+                return;
+            }
+            updated = new Observer[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!observers.compareAndSet(current, updated));
+    }
+
+    @Override
+    public void notifyObservers() {
+        Observer[] snapshot = observers.get();
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i].update(this);
+        }
+    }
+
+    private static int indexOf(Observer[] array, Observer observer) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(observer)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
+
+// How an asynchronous subject treats an observer whose ring buffer is full
+enum BackpressurePolicy {
+    BLOCK,            // the writer waits until the consumer frees a slot
+    DROP_OLDEST,      // the oldest undelivered state is discarded
+    COALESCE_LATEST   // the newest undelivered state is overwritten with the latest one
+}
+
+// Subject that publishes each state change into a preallocated ring buffer per observer.
+// A dedicated consumer thread drains each buffer in batches, so a slow observer no longer stalls setState.
+// Removing an observer or closing the subject delivers what is already queued and waits for the dispatch threads to finish.
+class AsyncSubject implements StatefulSubject, AutoCloseable {
+    private final int capacity;
+    private final int batchSize;
+    private final BackpressurePolicy policy;
+    private final List<ObserverChannel> channels = new ArrayList<>();
+    private volatile ObserverChannel[] snapshot = new ObserverChannel[0];
+    private volatile int state;
+
+    public AsyncSubject(int capacity, int batchSize, BackpressurePolicy policy) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.policy = policy;
+    }
+
+    // Observers called from a dispatch thread see the state of the event being delivered, other callers see the latest state
+    @Override
+    public int getState() {
+        Thread current = Thread.currentThread();
+        if (current instanceof DispatchThread) {
+            return ((DispatchThread) current).deliveredState;
+        }
+        return state;
+    }
+
+    public void setState(int state) {
+        this.state = state;
+        notifyObservers();
+    }
+
+    @Override
+    public synchronized void addObserver(Observer observer) {
+        ObserverChannel channel = new ObserverChannel(observer);
+        channels.add(channel);
+        snapshot = channels.toArray(new ObserverChannel[0]);
+        channel.thread.start();
+    }
+
+    @Override
+    public void removeObserver(Observer observer) {
+        ObserverChannel removed = null;
+        synchronized (this) {
+            for (int i = 0; i < channels.size(); i++) {
+                ObserverChannel channel = channels.get(i);
+                if (channel.observer.equals(observer)) {
+                    channels.remove(i);
+                    snapshot = channels.toArray(new ObserverChannel[0]);
+                    channel.close();
+                    removed = channel;
+                    break;
+                }
+            }
+        }
+        // Joined outside the monitor so an observer calling back into the subject cannot deadlock the wait
+        if (removed != null) {
+            removed.awaitDrained();
+        }
+    }
+
+    @Override
+    public void notifyObservers() {
+        int published = state;
+        ObserverChannel[] current = snapshot;
+        for (int i = 0; i < current.length; i++) {
+            current[i].publish(published);
+        }
+    }
+
+    // Number of states discarded or overwritten for an observer because its buffer was full,
+    // including blocked writes abandoned because the subject was closed
+    public long droppedCount(Observer observer) {
+        ObserverChannel[] current = snapshot;
+        for (ObserverChannel channel : current) {
+            if (channel.observer.equals(observer)) {
+                return channel.droppedCount();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        ObserverChannel[] closing;
+        synchronized (this) {
+            closing = channels.toArray(new ObserverChannel[0]);
+            for (ObserverChannel channel : closing) {
+                channel.close();
+            }
+            channels.clear();
+            snapshot = new ObserverChannel[0];
+        }
+        for (ObserverChannel channel : closing) {
+            channel.awaitDrained();
+        }
+    }
+
+    // Consumer thread that remembers which state it is currently delivering
+    private static final class DispatchThread extends Thread {
+        int deliveredState;
+
+        DispatchThread(Runnable task, String name) {
+            super(task, name);
+            setDaemon(true);
+        }
+    }
+
+    // Bounded ring buffer of pending states plus the thread that drains it into one observer
+    private final class ObserverChannel implements Runnable {
+        private final Observer observer;
+        private final int[] ring = new int[capacity];
+        private final int mask = capacity - 1;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final DispatchThread thread;
+        private long head;
+        private long tail;
+        private long dropped;
+        private boolean closed;
+
+        ObserverChannel(Observer observer) {
+            this.observer = observer;
+            this.thread = new DispatchThread(this, "observer-dispatch-" + observer);
+        }
+
+        void publish(int value) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (tail - head == capacity) {
+                    switch (policy) {
+                        case BLOCK:
+                            while (tail - head == capacity && !closed) {
+                                notFull.awaitUninterruptibly();
+                            }
+                            if (closed) {
+                                dropped++;
+                                return;
+                            }
+                            break;
+                        case DROP_OLDEST:
+                            head++;
+                            dropped++;
+                            break;
+                        case COALESCE_LATEST:
+                            ring[(int) ((tail - 1) & mask)] = value;
+                            dropped++;
+                            return;
+                    }
+                }
+                ring[(int) (tail & mask)] = value;
+                tail++;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            int[] batch = new int[batchSize];
+            while (true) {
+                int count;
+                lock.lock();
+                try {
+                    while (tail == head && !closed) {
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    // A closed channel keeps delivering until everything queued before the close is drained
+                    if (tail == head) {
+                        return;
+                    }
+                    count = (int) Math.min(batchSize, tail - head);
+                    for (int i = 0; i < count; i++) {
+                        batch[i] = ring[(int) ((head + i) & mask)];
+                    }
+                    head += count;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                for (int i = 0; i < count; i++) {
+                    thread.deliveredState = batch[i];
+                    // A throwing observer must not end the thread, or a BLOCK writer would wait on a full ring forever
+                    try {
+                        observer.update(AsyncSubject.this);
+                    } catch (RuntimeException e) {
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                }
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long droppedCount() {
+            lock.lock();
+            try {
+                return dropped;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Waits for the dispatch thread to deliver the remaining queue; an observer closing its own channel does not wait for itself
+        void awaitDrained() {
+            if (Thread.currentThread() == thread) {
+                return;
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
+
+// Subject that folds repeated writes between dispatch ticks into a single notification.
+// A tick fires either after a fixed number of writes or on a fixed time interval.
+// DeltaObservers receive the old and new state as primitives; plain Observers are called back as usual.
+class CoalescingSubject implements StatefulSubject, AutoCloseable {
+    private static final Observer[] NO_OBSERVERS = new Observer[0];
+    private static final DeltaObserver[] NO_DELTA_OBSERVERS = new DeltaObserver[0];
+
+    private final int writesPerTick;
+    private final ScheduledExecutorService ticker;
+    private volatile Observer[] observers = NO_OBSERVERS;
+    private volatile DeltaObserver[] deltaObservers = NO_DELTA_OBSERVERS;
+    private volatile int state;
+    private volatile boolean dirty;
+    private int pendingWrites;
+    private int lastDispatched;
+
+    private CoalescingSubject(int writesPerTick, ScheduledExecutorService ticker) {
+        this.writesPerTick = writesPerTick;
+        this.ticker = ticker;
+    }
+
+    // Dispatches once every writesPerTick calls to setState; the write counter assumes a single writing thread
+    public static CoalescingSubject countTicks(int writesPerTick) {
+        if (writesPerTick <= 0) {
+            throw new IllegalArgumentException("writesPerTick must be positive: " + writesPerTick);
+        }
+        return new CoalescingSubject(writesPerTick, null);
+    }
+
+    // Dispatches on a background timer every period, if the state was written since the last tick
+    public static CoalescingSubject timeTicks(long period, TimeUnit unit) {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "coalescing-subject-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CoalescingSubject subject = new CoalescingSubject(0, ticker);
+        ticker.scheduleAtFixedRate(subject::tick, period, period, unit);
+        return subject;
+    }
+
+    // A task that throws is never run again by the scheduler, so an observer failure is reported instead of ending the ticks
+    private void tick() {
+        try {
+            notifyObservers();
+        } catch (RuntimeException e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+
+    @Override
+    public int getState() {
+        return state;
+    }
+
+    public void setState(int state) {
+        this.state = state;
+        dirty = true;
+        if (writesPerTick > 0 && ++pendingWrites >= writesPerTick) {
+            pendingWrites = 0;
+            notifyObservers();
+        }
+    }
+
+    @Override
+    public synchronized void addObserver(Observer observer) {
+        if (observer instanceof DeltaObserver) {
+            DeltaObserver[] updated = Arrays.copyOf(deltaObservers, deltaObservers.length + 1);
+            updated[deltaObservers.length] = (DeltaObserver) observer;
+            deltaObservers = updated;
+        } else {
+            Observer[] updated = Arrays.copyOf(observers, observers.length + 1);
+            updated[observers.length] = observer;
+            observers = updated;
+        }
+    }
+
+    @Override
+    public synchronized void removeObserver(Observer observer) {
+        if (observer instanceof DeltaObserver) {
+            deltaObservers = without(deltaObservers, observer);
+        } else {
+            observers = without(observers, observer);
+        }
+    }
+
+    // Forces a tick: delivers the folded change since the previous tick, if the state actually moved
+    @Override
+    public synchronized void notifyObservers() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        int oldState = lastDispatched;
+        int newState = state;
+        if (oldState == newState) {
+            return;
+        }
+        lastDispatched = newState;
+        DeltaObserver[] deltas = deltaObservers;
+        for (int i = 0; i < deltas.length; i++) {
+            deltas[i].update(oldState, newState);
+        }
+        Observer[] plain = observers;
+        for (int i = 0; i < plain.length; i++) {
+            plain[i].update(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        notifyObservers();
+    }
+
+    private static <T> T[] without(T[] array, Observer observer) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(observer)) {
+                T[] updated = Arrays.copyOf(array, array.length - 1);
+                System.arraycopy(array, i + 1, updated, i, array.length - i - 1);
+                return updated;
+            }
+        }
+        return array;
+    }
+}
+
+// Subject whose observers subscribe to a key range or a predicate on the state value.
+// Range subscriptions are indexed into fixed-width interval buckets, so a notification only visits
+// subscriptions whose bucket contains the new state instead of every registered observer.
+// Buckets come in levels, each 64 times wider than the one below; a range is indexed at the lowest level
+// where it spans at most 64 buckets, so wide ranges cost one bucket probe per level rather than a scan.
+class FilteredSubject implements StatefulSubject {
+    private static final int MAX_BUCKETS_PER_RANGE = 64;
+    private static final int LEVEL_SHIFT = 6;
+
+    private final int bucketShift;
+    private final IntervalBuckets[] levels;
+    private final List<Subscription> predicates = new ArrayList<>();
+    private final List<Observer> unfiltered = new ArrayList<>();
+    private final Map<Observer, List<Subscription>> subscriptionsByObserver = new HashMap<>();
+    private int state;
+
+    public FilteredSubject(int bucketWidth) {
+        if (Integer.bitCount(bucketWidth) != 1) {
+            throw new IllegalArgumentException("bucketWidth must be a power of two: " + bucketWidth);
+        }
+        this.bucketShift = Integer.numberOfTrailingZeros(bucketWidth);
+        int levelCount = 1;
+        while ((1L << 32) >> (bucketShift + LEVEL_SHIFT * (levelCount - 1)) > MAX_BUCKETS_PER_RANGE) {
+            levelCount++;
+        }
+        this.levels = new IntervalBuckets[levelCount];
+        for (int i = 0; i < levelCount; i++) {
+            levels[i] = new IntervalBuckets();
+        }
+    }
+
+    @Override
+    public int getState() {
+        return state;
+    }
+
+    public void setState(int state) {
+        this.state = state;
+        notifyObservers();
+    }
+
+    // Subscribes to every state change, like ConcreteSubject
+    @Override
+    public void addObserver(Observer observer) {
+        unfiltered.add(observer);
+    }
+
+    // Subscribes to state changes whose new value lies in [low, high]
+    public void addObserver(Observer observer, int low, int high) {
+        if (low > high) {
+            throw new IllegalArgumentException("low must not exceed high: " + low + " > " + high);
+        }
+        Subscription subscription = new Subscription(observer, low, high, null);
+        int level = levelFor(low, high);
+        int shift = shiftOf(level);
+        for (long bucket = (long) low >> shift; bucket <= (long) high >> shift; bucket++) {
+            levels[level].add((int) bucket, subscription);
+        }
+        subscriptionsByObserver.computeIfAbsent(observer, key -> new ArrayList<>()).add(subscription);
+    }
+
+    // Subscribes to state changes accepted by the predicate; predicates cannot be indexed and are tested on every change
+    public void addObserver(Observer observer, IntPredicate filter) {
+        Subscription subscription = new Subscription(observer, Integer.MIN_VALUE, Integer.MAX_VALUE, filter);
+        predicates.add(subscription);
+        subscriptionsByObserver.computeIfAbsent(observer, key -> new ArrayList<>()).add(subscription);
+    }
+
+    // Removes every subscription of the observer, filtered or not
+    @Override
+    public void removeObserver(Observer observer) {
+        unfiltered.remove(observer);
+        List<Subscription> subscriptions = subscriptionsByObserver.remove(observer);
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.filter != null) {
+                predicates.remove(subscription);
+            } else {
+                int level = levelFor(subscription.low, subscription.high);
+                int shift = shiftOf(level);
+                for (long bucket = (long) subscription.low >> shift; bucket <= (long) subscription.high >> shift; bucket++) {
+                    levels[level].remove((int) bucket, subscription);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void notifyObservers() {
+        int current = state;
+        for (int i = 0; i < unfiltered.size(); i++) {
+            unfiltered.get(i).update(this);
+        }
+        for (int level = 0; level < levels.length; level++) {
+            if (levels[level].isEmpty()) {
+                continue;
+            }
+            List<Subscription> bucket = levels[level].get((int) ((long) current >> shiftOf(level)));
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size(); i++) {
+                Subscription subscription = bucket.get(i);
+                if (subscription.low <= current && current <= subscription.high) {
+                    subscription.observer.update(this);
+                }
+            }
+        }
+        for (int i = 0; i < predicates.size(); i++) {
+            Subscription subscription = predicates.get(i);
+            if (subscription.filter.test(current)) {
+                subscription.observer.update(this);
+            }
+        }
+    }
+
+    // Lowest level at which [low, high] spans at most MAX_BUCKETS_PER_RANGE buckets
+    private int levelFor(int low, int high) {
+        int level = 0;
+        while (((long) high >> shiftOf(level)) - ((long) low >> shiftOf(level)) >= MAX_BUCKETS_PER_RANGE) {
+            level++;
+        }
+        return level;
+    }
+
+    private int shiftOf(int level) {
+        return bucketShift + LEVEL_SHIFT * level;
+    }
+
+    // A single registration: an inclusive range, optionally narrowed further by a predicate
+    private static final class Subscription {
+        final Observer observer;
+        final int low;
+        final int high;
+        final IntPredicate filter;
+
+        Subscription(Observer observer, int low, int high, IntPredicate filter) {
+            this.observer = observer;
+            this.low = low;
+            this.high = high;
+            this.filter = filter;
+        }
+    }
+
+    // Open-addressing map from bucket number to the subscriptions overlapping that bucket, keyed by primitive int
+    private static final class IntervalBuckets {
+        private int[] keys = new int[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        List<Subscription> get(int bucket) {
+            int mask = keys.length - 1;
+            for (int slot = mix(bucket) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == bucket) {
+                    return (List<Subscription>) values[slot];
+                }
+            }
+            return null;
+        }
+
+        void add(int bucket, Subscription subscription) {
+            List<Subscription> list = get(bucket);
+            if (list == null) {
+                if (2 * (size + 1) > keys.length) {
+                    resize();
+                }
+                list = new ArrayList<>();
+                insert(bucket, list);
+                size++;
+            }
+            list.add(subscription);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        // Frees the bucket once its last subscription is gone, so churn across the key space does not accumulate empty buckets
+        void remove(int bucket, Subscription subscription) {
+            int mask = keys.length - 1;
+            int slot = mix(bucket) & mask;
+            while (values[slot] != null && keys[slot] != bucket) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == null) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<Subscription> list = (List<Subscription>) values[slot];
+            list.remove(subscription);
+            if (!list.isEmpty()) {
+                return;
+            }
+            values[slot] = null;
+            size--;
+            // Re-insert the rest of the probe cluster so lookups past the freed slot still find their keys
+            for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                Object moved = values[next];
+                values[next] = null;
+                insert(keys[next], moved);
+            }
+        }
+
+        private void insert(int bucket, Object list) {
+            int mask = keys.length - 1;
+            int slot = mix(bucket) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = bucket;
+            values[slot] = list;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
+
 // Observer interface that defines the update method
 interface Observer {
     void update(Subject subject);
 }
 
+// Observer that can receive a change as primitive old and new values, without calling back into the subject
+interface DeltaObserver extends Observer {
+    void update(int oldState, int newState);
+}
+
 // Concrete observer class that implements the Observer interface
-class ConcreteObserver implements Observer {
+class ConcreteObserver implements DeltaObserver {
     private String name;
 
     public ConcreteObserver(String name) {
@@ -58,11 +763,16 @@ class ConcreteObserver implements Observer {
 
     @Override
     public void update(Subject subject) {
-        if (subject instanceof ConcreteSubject) {
-            int newState = ((ConcreteSubject) subject).getState();
+        if (subject instanceof StatefulSubject) {
+            int newState = ((StatefulSubject) subject).getState();
             System.out.println("Observer " + name + " has been notified. New state: " + newState);
         }
     }
+
+    @Override
+    public void update(int oldState, int newState) {
+        System.out.println("Observer " + name + " has been notified. State changed from " + oldState + " to " + newState);
+    }
 }
 
 public class ObserverPatternExample {
@@ -84,11 +794,242 @@ public class ObserverPatternExample {
 
         // Changing the state again will notify only observer2
         subject.setState(20);
+
+        // The copy-on-write subject can be shared across threads and mutated during notification
+        CopyOnWriteSubject sharedSubject = new CopyOnWriteSubject();
+        sharedSubject.addObserver(observer1);
+        sharedSubject.addObserver(observer2);
+        sharedSubject.setState(30);
+        sharedSubject.removeObserver(observer2);
+        sharedSubject.setState(40);
+
+        // The asynchronous subject delivers updates on per-observer dispatch threads
+        try (AsyncSubject asyncSubject = new AsyncSubject(16, 4, BackpressurePolicy.BLOCK)) {
+            asyncSubject.addObserver(observer1);
+            asyncSubject.setState(50);
+            asyncSubject.setState(60);
+        } // closing delivers the queued states before returning
+
+        // The coalescing subject folds every three writes into one delta notification
+        try (CoalescingSubject coalescingSubject = CoalescingSubject.countTicks(3)) {
+            coalescingSubject.addObserver(observer2);
+            coalescingSubject.setState(70);
+            coalescingSubject.setState(71);
+            coalescingSubject.setState(72);
+            coalescingSubject.setState(80);
+        }
+
+        // The filtered subject only notifies observers whose range or predicate matches the new state
+        FilteredSubject filteredSubject = new FilteredSubject(16);
+        filteredSubject.addObserver(observer1, 0, 99);
+        filteredSubject.addObserver(observer2, value -> value % 2 == 1);
+        filteredSubject.setState(90);  // only observer1
+        filteredSubject.setState(101); // only observer2
     }
 }
+
+// Micro-benchmark comparing notification throughput of the ArrayList subject and the copy-on-write subject.
+// Run with: java ObserverBenchmark (after compiling this file)
+class ObserverBenchmark {
+    private static final int[] OBSERVER_COUNTS = {1, 100, 10_000};
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long TOTAL_NOTIFICATIONS = 2_000_000L;
+
+    // Observer that does the minimum amount of work so the registry cost dominates
+    static class CountingObserver implements Observer {
+        long count;
+
+        @Override
+        public void update(Subject subject) {
+            count++;
+        }
+    }
+
+    interface Notifier {
+        void notifyAllObservers();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int observerCount : OBSERVER_COUNTS) {
+            ConcreteSubject listSubject = new ConcreteSubject();
+            CopyOnWriteSubject cowSubject = new CopyOnWriteSubject();
+            for (int i = 0; i < observerCount; i++) {
+                listSubject.addObserver(new CountingObserver());
+                cowSubject.addObserver(new CountingObserver());
+            }
+            for (int threads : THREAD_COUNTS) {
+                long listNanos = run(listSubject::notifyObservers, threads, observerCount);
+                long cowNanos = run(cowSubject::notifyObservers, threads, observerCount);
+                System.out.printf("observers=%d threads=%d ArrayList=%.1f ns/notify CopyOnWrite=%.1f ns/notify%n",
+                        observerCount, threads,
+                        (double) listNanos / iterations(observerCount),
+                        (double) cowNanos / iterations(observerCount));
+            }
+        }
+    }
+
+    private static long iterations(int observerCount) {
+        return Math.max(1, TOTAL_NOTIFICATIONS / observerCount);
+    }
+
+    private static long run(Notifier notifier, int threads, int observerCount) throws InterruptedException {
+        long perThread = Math.max(1, iterations(observerCount) / threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (long i = 0; i < perThread; i++) {
+                        notifier.notifyAllObservers();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+}
+// Measures setState latency percentiles with one deliberately slow observer attached.
+// Run with: java AsyncObserverBenchmark (after compiling this file)
+class AsyncObserverBenchmark {
+    private static final int FAST_OBSERVERS = 8;
+    private static final int ASYNC_WRITES = 1_000_000;
+    private static final int SYNC_WRITES = 2_000;
+
+    // Observer that simulates an expensive reaction to every update
+    static class SlowObserver implements Observer {
+        @Override
+        public void update(Subject subject) {
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    public static void main(String[] args) {
+        ConcreteSubject syncSubject = new ConcreteSubject();
+        attach(syncSubject);
+        report("synchronous", measure(syncSubject::setState, SYNC_WRITES));
+
+        for (BackpressurePolicy policy : BackpressurePolicy.values()) {
+            if (policy == BackpressurePolicy.BLOCK) {
+                // Blocking on a full buffer degrades to the slow observer's pace, so measure fewer writes
+                try (AsyncSubject asyncSubject = new AsyncSubject(1024, 64, policy)) {
+                    attach(asyncSubject);
+                    report("async " + policy, measure(asyncSubject::setState, SYNC_WRITES * 2));
+                }
+            } else {
+                try (AsyncSubject asyncSubject = new AsyncSubject(1024, 64, policy)) {
+                    attach(asyncSubject);
+                    report("async " + policy, measure(asyncSubject::setState, ASYNC_WRITES));
+                }
+            }
+        }
+    }
+
+    private static void attach(Subject subject) {
+        subject.addObserver(new SlowObserver());
+        for (int i = 0; i < FAST_OBSERVERS; i++) {
+            subject.addObserver(new ObserverBenchmark.CountingObserver());
+        }
+    }
+
+    private static long[] measure(IntConsumer setState, int writes) {
+        long[] latencies = new long[writes];
+        for (int i = 0; i < writes; i++) {
+            long begin = System.nanoTime();
+            setState.accept(i);
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String label, long[] sorted) {
+        System.out.printf("%-22s p50=%d ns p99=%d ns p99.9=%d ns%n", label,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+}
+
+// Compares notification cost at 100k range subscribers: observers filtering for themselves versus the indexed subject.
+// Run with: java FilteredSubjectBenchmark (after compiling this file)
+class FilteredSubjectBenchmark {
+    private static final int SUBSCRIBERS = 100_000;
+    private static final int KEY_SPACE = 10_000_000;
+    private static final int RANGE_WIDTH = 1_000;
+    private static final int NOTIFICATIONS = 2_000;
+
+    // Observer that throws away states outside its range, the way ConcreteObserver-style code does today
+    static class SelfFilteringObserver implements Observer {
+        final int low;
+        final int high;
+        long matches;
+
+        SelfFilteringObserver(int low, int high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public void update(Subject subject) {
+            if (subject instanceof ConcreteSubject) {
+                int value = ((ConcreteSubject) subject).getState();
+                if (low <= value && value <= high) {
+                    matches++;
+                }
+            } else {
+                matches++;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        ConcreteSubject broadcast = new ConcreteSubject();
+        FilteredSubject indexed = new FilteredSubject(1024);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            int low = random.nextInt(KEY_SPACE - RANGE_WIDTH);
+            broadcast.addObserver(new SelfFilteringObserver(low, low + RANGE_WIDTH));
+            indexed.addObserver(new SelfFilteringObserver(low, low + RANGE_WIDTH), low, low + RANGE_WIDTH);
+        }
+        int[] states = new int[NOTIFICATIONS];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = random.nextInt(KEY_SPACE);
+        }
+        for (int round = 0; round < 3; round++) {
+            long begin = System.nanoTime();
+            for (int value : states) {
+                broadcast.setState(value);
+            }
+            long broadcastNanos = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            for (int value : states) {
+                indexed.setState(value);
+            }
+            long indexedNanos = System.nanoTime() - begin;
+            System.out.printf("round %d: broadcast=%d ns/notify indexed=%d ns/notify%n",
+                    round, broadcastNanos / NOTIFICATIONS, indexedNanos / NOTIFICATIONS);
+        }
+    }
+}
+
 // In this example:
 
+// StatefulSubject lets observers read the state of any of the subjects below through one interface.
 // ConcreteSubject is the subject that maintains a state and a list of observers.
+// CopyOnWriteSubject is a thread-safe subject whose observers can be added or removed while another thread is notifying.
+// AsyncSubject hands state changes to per-observer ring buffers drained by background threads, with a configurable BackpressurePolicy.
+// CoalescingSubject folds high-frequency writes into one notification per tick and hands DeltaObservers the old and new state.
+// FilteredSubject indexes range subscriptions in levels of interval buckets so a change only reaches the observers that asked for it, however wide their ranges.
 // ConcreteObserver is a concrete observer that implements the update method to react to changes in the subject's state.
 // ObserverPatternExample demonstrates how to use the Observer pattern by creating a subject, adding observers, and changing the subject's state to see how observers are notified.
 // This example showcases a simple implementation of the Observer design pattern in Java.
\ No newline at end of file
@@ -1,10 +1,19 @@
 // Sure, here's an example of a Singleton design pattern implemented in Java. In this example, the Singleton ensures that a class has only one instance and provides a global point of access to that instance.
 
 // Copy
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 public class Singleton {
     
-    // Private static instance variable
-    private static Singleton instance;
+    // Private static instance variable; volatile so the double-checked locking below publishes it safely
+    private static volatile Singleton instance;
     
     // Private constructor to prevent instantiation from outside
     private Singleton() {
@@ -13,15 +22,18 @@ public class Singleton {
     
     // Public method to provide global access to the singleton instance
     public static Singleton getInstance() {
-        // Lazy initialization: create the instance only if it doesn't exist
-        if (instance == null) {
+        // Lazy initialization: create the instance only if it doesn't exist.
+        // The field is read once into a local so the common path does a single volatile read.
+        Singleton result = instance;
+        if (result == null) {
             synchronized (Singleton.class) {
-                if (instance == null) {
-                    instance = new Singleton();
+                result = instance;
+                if (result == null) {
+                    instance = result = new Singleton();
                 }
             }
         }
-        return instance;
+        return result;
     }
     
     // Other methods and properties of the singleton class
@@ -35,13 +47,328 @@ public class Singleton {
         
         // Use the singleton instance
         singleton.doSomething();
+
+        // The lazy holder, enum and acquire/release variants are used the same way
+        HolderSingleton.getInstance().doSomething();
+        EnumSingleton.INSTANCE.doSomething();
+        AcquireReleaseSingleton.getInstance().doSomething();
+
+        // Scoped instances: one global, one per context and one per tenant
+        SingletonRegistry<ScopedService> registry = new SingletonRegistry<>(ScopedService::new);
+        registry.global().doSomething();
+        registry.runInContext(() -> registry.forContext().doSomething());
+        registry.forTenant("tenant-a").doSomething();
+        registry.forTenant("tenant-b").doSomething();
+        registry.forTenant("tenant-a").doSomething();
+        System.out.println("Evicted idle tenants: " + registry.evictIdleTenants(0, TimeUnit.NANOSECONDS));
+    }
+}
+
+// Holder-class idiom: the JVM initializes Holder on the first getInstance() call, and class
+// initialization guarantees safe publication, so the hot path is a plain static field read.
+class HolderSingleton {
+    private HolderSingleton() {
+    }
+
+    private static final class Holder {
+        static final HolderSingleton INSTANCE = new HolderSingleton();
+    }
+
+    public static HolderSingleton getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void doSomething() {
+        System.out.println("HolderSingleton instance is doing something.");
+    }
+}
+
+// Enum singleton: the JVM guarantees a single instance, even across serialization and reflection
+enum EnumSingleton {
+    INSTANCE;
+
+    public void doSomething() {
+        System.out.println("EnumSingleton instance is doing something.");
+    }
+}
+
+// Lazy singleton using VarHandle acquire/release ordering instead of a volatile field.
+// Acquire reads are cheaper than volatile reads on weakly ordered CPUs and still see a fully constructed instance.
+class AcquireReleaseSingleton {
+    private static final VarHandle INSTANCE;
+    private static AcquireReleaseSingleton instance;
+
+    static {
+        try {
+            INSTANCE = MethodHandles.lookup().findStaticVarHandle(AcquireReleaseSingleton.class, "instance", AcquireReleaseSingleton.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private AcquireReleaseSingleton() {
+    }
+
+    public static AcquireReleaseSingleton getInstance() {
+        AcquireReleaseSingleton result = (AcquireReleaseSingleton) INSTANCE.getAcquire();
+        if (result == null) {
+            synchronized (AcquireReleaseSingleton.class) {
+                result = (AcquireReleaseSingleton) INSTANCE.getAcquire();
+                if (result == null) {
+                    result = new AcquireReleaseSingleton();
+                    INSTANCE.setRelease(result);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void doSomething() {
+        System.out.println("AcquireReleaseSingleton instance is doing something.");
     }
 }
+
+// Registry that resolves singleton-style instances by scope instead of one static field:
+// one global instance, one per thread, one per bound execution context, and one per tenant key.
+// Tenant instances are created under a per-tenant lock, so first access for one tenant never blocks another,
+// and tenants that have been idle for too long can be evicted to keep memory bounded.
+class SingletonRegistry<T> {
+    // lastAccess is refreshed at most this often, so hot tenants do not write the shared slot on every lookup
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final InheritableThreadLocal<LazySlot<T>> perContext = new InheritableThreadLocal<>();
+    private final ConcurrentHashMap<String, LazySlot<T>> perTenant = new ConcurrentHashMap<>();
+    private final LazySlot<T> global;
+
+    public SingletonRegistry(Supplier<T> factory) {
+        this.factory = factory;
+        this.perThread = ThreadLocal.withInitial(factory);
+        this.global = new LazySlot<>(factory);
+    }
+
+    // The one instance shared by the whole JVM
+    public T global() {
+        return global.get();
+    }
+
+    // One instance per platform thread
+    public T forCurrentThread() {
+        return perThread.get();
+    }
+
+    // Runs the task with a fresh context; forContext() returns the same instance anywhere inside it,
+    // including in threads started from it
+    public void runInContext(Runnable task) {
+        LazySlot<T> previous = perContext.get();
+        perContext.set(new LazySlot<>(factory));
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                perContext.remove();
+            } else {
+                perContext.set(previous);
+            }
+        }
+    }
+
+    // The instance of the context bound by the enclosing runInContext call
+    public T forContext() {
+        LazySlot<T> slot = perContext.get();
+        if (slot == null) {
+            throw new IllegalStateException("No context is bound; call forContext() inside runInContext()");
+        }
+        return slot.get();
+    }
+
+    // One instance per tenant key
+    public T forTenant(String tenant) {
+        // Hits take no lock; computeIfAbsent only installs an empty slot and the factory runs under the slot's own lock
+        LazySlot<T> slot = perTenant.get(tenant);
+        if (slot == null) {
+            slot = perTenant.computeIfAbsent(tenant, key -> new LazySlot<>(factory));
+        }
+        long now = System.nanoTime();
+        if (now - slot.lastAccess > ACCESS_GRANULARITY_NANOS) {
+            slot.lastAccess = now;
+        }
+        return slot.get();
+    }
+
+    // Drops tenant instances not accessed within the idle period and returns how many were evicted.
+    // Eviction is not atomic with lookup: a forTenant call that fetched a slot just before it was removed
+    // still returns the evicted instance, and the next lookup for that tenant creates a fresh one.
+    // Callers that need exactly one live instance per tenant must not evict tenants that may still be in use.
+    public int evictIdleTenants(long idle, TimeUnit unit) {
+        long cutoff = System.nanoTime() - unit.toNanos(idle);
+        int evicted = 0;
+        for (Map.Entry<String, LazySlot<T>> entry : perTenant.entrySet()) {
+            LazySlot<T> slot = entry.getValue();
+            // remove(key, slot) only drops the slot whose timestamp was checked, never a replacement installed since
+            if (slot.lastAccess - cutoff < 0 && perTenant.remove(entry.getKey(), slot)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int tenantCount() {
+        return perTenant.size();
+    }
+
+    // Lazily created instance guarded by its own monitor
+    private static final class LazySlot<T> {
+        private final Supplier<T> factory;
+        private volatile T instance;
+        volatile long lastAccess = System.nanoTime();
+
+        LazySlot(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        T get() {
+            T result = instance;
+            if (result == null) {
+                synchronized (this) {
+                    result = instance;
+                    if (result == null) {
+                        instance = result = factory.get();
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
+
+// Example service resolved through the scoped registry
+class ScopedService {
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    private final int id = CREATED.incrementAndGet();
+
+    public void doSomething() {
+        System.out.println("ScopedService #" + id + " is doing something.");
+    }
+}
+
+// Measures first-call latency and contended getInstance() cost for each singleton variant.
+// Run with: java SingletonBenchmark (after compiling this file); first-call numbers are only cold in a fresh JVM.
+class SingletonBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64, 128};
+    private static final long CALLS = 50_000_000L;
+
+    // Each variant gets its own loop, so every getInstance() call site sees exactly one target
+    interface Loop {
+        long run(long calls);
+    }
+
+    // The loops count instances that differ from the first one, a reference comparison that keeps each call live
+    static long doubleChecked(long calls) {
+        Singleton expected = Singleton.getInstance();
+        long mismatches = 0;
+        for (long i = 0; i < calls; i++) {
+            if (Singleton.getInstance() != expected) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    static long holder(long calls) {
+        HolderSingleton expected = HolderSingleton.getInstance();
+        long mismatches = 0;
+        for (long i = 0; i < calls; i++) {
+            if (HolderSingleton.getInstance() != expected) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    static long enumConstant(long calls) {
+        EnumSingleton expected = EnumSingleton.INSTANCE;
+        long mismatches = 0;
+        for (long i = 0; i < calls; i++) {
+            if (EnumSingleton.INSTANCE != expected) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    static long acquireRelease(long calls) {
+        AcquireReleaseSingleton expected = AcquireReleaseSingleton.getInstance();
+        long mismatches = 0;
+        for (long i = 0; i < calls; i++) {
+            if (AcquireReleaseSingleton.getInstance() != expected) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long begin = System.nanoTime();
+        Singleton.getInstance();
+        System.out.printf("%-16s first call %d ns%n", "double-checked", System.nanoTime() - begin);
+        begin = System.nanoTime();
+        HolderSingleton.getInstance();
+        System.out.printf("%-16s first call %d ns%n", "holder", System.nanoTime() - begin);
+        begin = System.nanoTime();
+        EnumSingleton.INSTANCE.hashCode();
+        System.out.printf("%-16s first call %d ns%n", "enum", System.nanoTime() - begin);
+        begin = System.nanoTime();
+        AcquireReleaseSingleton.getInstance();
+        System.out.printf("%-16s first call %d ns%n", "acquire/release", System.nanoTime() - begin);
+
+        // Holder and enum reads are constants once compiled, so their loops mostly show the cost of the loop itself
+        String[] names = {"double-checked", "holder", "enum", "acquire/release"};
+        Loop[] loops = {SingletonBenchmark::doubleChecked, SingletonBenchmark::holder, SingletonBenchmark::enumConstant,
+                SingletonBenchmark::acquireRelease};
+        for (int threads : THREAD_COUNTS) {
+            for (int v = 0; v < loops.length; v++) {
+                long nanos = run(loops[v], threads);
+                System.out.printf("%-16s threads=%d %.2f ns/call%n", names[v], threads, (double) nanos * threads / CALLS);
+            }
+        }
+    }
+
+    private static long run(Loop loop, int threads) throws InterruptedException {
+        long perThread = CALLS / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] sink = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    sink[index] = loop.run(perThread);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+}
+
 Explanation:
 
 The Singleton class has a private static instance variable and a private constructor to prevent external instantiation.
 The getInstance() method is used to obtain the singleton instance. It uses lazy initialization, creating the instance only if it doesn't exist.
 The synchronized block inside getInstance() ensures thread safety during the creation of the singleton instance in a multi-threaded environment.
+The instance field is volatile, which double-checked locking needs under the Java Memory Model; without it another thread could see a partially constructed instance.
+HolderSingleton, EnumSingleton and AcquireReleaseSingleton are alternative lazy, thread-safe variants, and SingletonBenchmark compares their first-call and contended getInstance() cost.
+SingletonRegistry resolves instances by scope (global, per thread, per context or per tenant) and evicts idle tenant instances.
 The doSomething() method represents some functionality that the singleton class provides.
 This example ensures that only one instance of the Singleton class is created, and it provides a globally accessible method (getInstance()) to obtain that instance.
 